@@ -7,23 +7,33 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.season.ymir.client.handler.NettyClientHandler;
+import org.season.ymir.client.pool.ConnectionPool;
+import org.season.ymir.common.base.ConnectionStateEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
 import org.season.ymir.common.constant.CommonConstant;
 import org.season.ymir.common.entity.ServiceBean;
+import org.season.ymir.common.exception.RpcBusyException;
+import org.season.ymir.common.exception.RpcException;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
+import org.season.ymir.common.utils.NettyTransportUtils;
 import org.season.ymir.common.utils.YmirThreadFactory;
 import org.season.ymir.core.codec.MessageEncoder;
+import org.season.ymir.core.codec.MessageFrameDecoder;
 import org.season.ymir.core.codec.MessageResponseDecoder;
-import org.season.ymir.core.protocol.MessageProtocol;
+import org.season.ymir.core.limit.ConcurrencyLimiter;
+import org.season.ymir.core.property.YmirConfigurationProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -42,83 +52,244 @@ public class YmirNettyClient {
     private static ExecutorService threadPool = new ThreadPoolExecutor(4, 10, 200,
             TimeUnit.SECONDS, new LinkedBlockingQueue<>(1000), new YmirThreadFactory("netty-client"));
 
-    private EventLoopGroup loopGroup = new NioEventLoopGroup(4);
+    private EventLoopGroup loopGroup;
+
+    private boolean epoll;
 
     /**
-     * 已连接的服务缓存
+     * 服务连接池
      * key: 服务地址，格式：ip:port
      */
-    public static Map<String, NettyClientHandler> connectedServerNodes = new ConcurrentHashMap<>();
+    public static Map<String, ConnectionPool> connectedServerNodes = new ConcurrentHashMap<>();
 
-    public YmirResponse sendRequest(YmirRequest rpcRequest, ServiceBean service, MessageProtocol protocol) {
+    private YmirConfigurationProperty property;
 
-        String address = service.getAddress();
-        synchronized (address) {
-            if (connectedServerNodes.containsKey(address)) {
-                NettyClientHandler handler = connectedServerNodes.get(address);
-                return handler.sendRequest(rpcRequest);
-            }
+    public YmirNettyClient(YmirConfigurationProperty property) {
+        this.property = property;
+        this.epoll = NettyTransportUtils.useEpoll(property.isEpoll());
+        this.loopGroup = NettyTransportUtils.newEventLoopGroup(epoll, 4, "netty-client-io");
+    }
 
-            String[] addrInfo = address.split(":");
-            final String serverAddress = addrInfo[0];
-            final String serverPort = addrInfo[1];
-            final NettyClientHandler handler = new NettyClientHandler(protocol, address);
-            // 异步建立客户端
-            threadPool.submit(() -> {
-                        startClient(address, serverAddress, serverPort, handler, protocol);
-                    }
-            );
-            return handler.sendRequest(rpcRequest);
+    /**
+     * 异步发送请求
+     *
+     * @param rpcRequest 请求
+     * @param service    服务提供者
+     * @param protocol   序列化协议
+     * @param timeout    超时时间，单位：毫秒
+     * @return {@link CompletableFuture}
+     */
+    public CompletableFuture<YmirResponse> sendRequest(YmirRequest rpcRequest, ServiceBean service, String protocol, long timeout) {
+        ConnectionPool pool = connectedServerNodes.computeIfAbsent(service.getAddress(), address -> new ConnectionPool(address, protocol, this, property));
+        NettyClientHandler handler = pool.acquire();
+        if (Objects.isNull(handler)) {
+            CompletableFuture<YmirResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new RpcException("No available connection to " + service.getAddress() + ", state:" + pool.getState().getDesc()));
+            return future;
+        }
+        ConcurrencyLimiter limiter = pool.getLimiter();
+        if (Objects.isNull(limiter)) {
+            return handler.sendRequest(rpcRequest, timeout);
+        }
+        if (!limiter.tryAcquire()) {
+            CompletableFuture<YmirResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new RpcBusyException("Provider " + service.getAddress() + " reached concurrency limit:" + limiter.getLimit()));
+            return future;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<YmirResponse> future = handler.sendRequest(rpcRequest, timeout);
+        // 超时、连接异常与服务端过载计为丢弃，收缩上限
+        future.whenComplete((response, cause) -> limiter.release(start,
+                Objects.nonNull(cause) || response.getStatusEnum() == ServiceStatusEnum.SERVER_BUSY));
+        return future;
+    }
+
+    /**
+     * 服务地址是否可参与负载均衡，未建立过连接的地址视为可用
+     *
+     * @param address 服务地址，格式：ip:port
+     * @return 是否可用
+     */
+    public boolean isAvailable(String address) {
+        ConnectionPool pool = connectedServerNodes.get(address);
+        return Objects.isNull(pool) || pool.getState() != ConnectionStateEnum.TRANSIENT_FAILURE;
+    }
+
+    /**
+     * 对服务地址的并发数是否已达到自适应上限
+     *
+     * @param address 服务地址，格式：ip:port
+     * @return 未建立连接池或未配置限制器时返回false
+     */
+    public boolean isAtLimit(String address) {
+        ConnectionPool pool = connectedServerNodes.get(address);
+        return Objects.nonNull(pool) && pool.isAtLimit();
+    }
+
+    /**
+     * 服务地址的连接状态
+     *
+     * @param address 服务地址，格式：ip:port
+     * @return {@link ConnectionStateEnum}
+     */
+    public ConnectionStateEnum getState(String address) {
+        ConnectionPool pool = connectedServerNodes.get(address);
+        return Objects.isNull(pool) ? ConnectionStateEnum.IDLE : pool.getState();
+    }
+
+    /**
+     * 各服务地址下每个连接的平滑心跳往返时间
+     *
+     * @return key: 服务地址，value: 本地地址与往返时间，单位：微秒
+     */
+    public Map<String, Map<String, Long>> getHeartbeatRtt() {
+        Map<String, Map<String, Long>> rtt = new LinkedHashMap<>();
+        connectedServerNodes.forEach((address, pool) -> rtt.put(address, pool.getHeartbeatRtt()));
+        return rtt;
+    }
+
+    /**
+     * 预热服务地址的连接池
+     *
+     * @param address  服务地址，格式：ip:port
+     * @param protocol 序列化协议
+     * @return 最小连接数的连接全部建立后完成
+     */
+    public CompletableFuture<Void> warmUp(String address, String protocol) {
+        return connectedServerNodes.computeIfAbsent(address, key -> new ConnectionPool(key, protocol, this, property)).warmUp();
+    }
+
+    /**
+     * 服务地址是否已有建立的连接
+     *
+     * @param address 服务地址，格式：ip:port
+     * @return 是否可用
+     */
+    public boolean isReady(String address) {
+        ConnectionPool pool = connectedServerNodes.get(address);
+        return Objects.nonNull(pool) && pool.isReady();
+    }
+
+    /**
+     * 各服务地址的连接状态
+     *
+     * @return key: 服务地址，value: 是否已有建立的连接
+     */
+    public Map<String, Boolean> getReadiness() {
+        Map<String, Boolean> readiness = new LinkedHashMap<>();
+        connectedServerNodes.forEach((address, pool) -> readiness.put(address, pool.isReady()));
+        return readiness;
+    }
+
+    /**
+     * 异步建立连接
+     *
+     * @param address 服务地址，格式：ip:port
+     * @param handler 连接处理器
+     */
+    public void connect(String address, NettyClientHandler handler) {
+        String[] addrInfo = address.split(":");
+        final String serverAddress = addrInfo[0];
+        final String serverPort = addrInfo[1];
+        threadPool.submit(() -> {
+                    startClient(address, serverAddress, serverPort, handler);
+                }
+        );
+    }
+
+    /**
+     * 关闭服务地址的连接池，提供者从注册中心移除时调用
+     *
+     * @param address 服务地址，格式：ip:port
+     */
+    public void close(String address) {
+        ConnectionPool pool = connectedServerNodes.remove(address);
+        if (Objects.nonNull(pool)) {
+            pool.close();
         }
     }
 
-    private void startClient(String address, String serverAddress, String serverPort, NettyClientHandler handler, MessageProtocol protocol) {
+    /**
+     * 各服务地址下每个连接等待响应的请求数
+     *
+     * @return key: 服务地址，value: 本地地址与等待请求数
+     */
+    public Map<String, Map<String, Integer>> getInFlightRequests() {
+        Map<String, Map<String, Integer>> inFlight = new LinkedHashMap<>();
+        connectedServerNodes.forEach((address, pool) -> inFlight.put(address, pool.getInFlightRequests()));
+        return inFlight;
+    }
+
+    /**
+     * 各服务地址的自适应并发上限
+     *
+     * @return key: 服务地址，value: 并发上限，仅包含配置了限制器的地址
+     */
+    public Map<String, Integer> getConcurrencyLimits() {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        connectedServerNodes.forEach((address, pool) -> {
+            if (Objects.nonNull(pool.getLimiter())) {
+                limits.put(address, pool.getLimiter().getLimit());
+            }
+        });
+        return limits;
+    }
+
+    private void startClient(String address, String serverAddress, String serverPort, NettyClientHandler handler) {
         // 配置客户端
         Bootstrap bootstrap = new Bootstrap();
         bootstrap.group(loopGroup)
-                .channel(NioSocketChannel.class)
+                .channel(NettyTransportUtils.channelClass(epoll))
                 .remoteAddress(serverAddress, Integer.parseInt(serverPort))
                 .option(ChannelOption.SO_KEEPALIVE, true)
                 .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, property.getConnectTimeout())
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(property.getWriteBufferLowWaterMark(), property.getWriteBufferHighWaterMark()))
                 .handler(new ChannelInitializer<Channel>() {
                     @Override
                     protected void initChannel(Channel channel) throws Exception {
                         ChannelPipeline pipeline = channel.pipeline();
+                        if (property.isFlushConsolidation()) {
+                            // flush合并，调用线程发出的请求在同一次事件循环内合并flush
+                            pipeline.addLast(new FlushConsolidationHandler(property.getFlushConsolidationLimit(), true));
+                        }
                         pipeline
-                                // 空闲检测
-                                .addLast(new IdleStateHandler(CommonConstant.READ_TIMEOUT_SECONDS, 0, 0))
                                 .addLast(new ReadTimeoutHandler(3 * CommonConstant.READ_TIMEOUT_SECONDS))
+                                // 帧解码器
+                                .addLast(new MessageFrameDecoder(property.getMaxSize()))
                                 // 解码器
-                                .addLast(new MessageResponseDecoder(protocol))
+                                .addLast(new MessageResponseDecoder(property.getMaxSize()))
                                 // 编码器
-                                .addLast(new MessageEncoder(protocol))
+                                .addLast(new MessageEncoder(property.getCompressThreshold()))
                                 .addLast(handler);
                     }
                 });
         // 启用客户端连接
         bootstrap.connect().addListener((ChannelFutureListener) channelFuture -> {
             if (!channelFuture.isSuccess()) {
-                reconnect(address, serverAddress, serverPort, handler, protocol);
-                return;
+                logger.warn("Connect to {} failed, cause:{}", address, channelFuture.cause().getMessage());
+                handler.getPool().onConnectFailure(handler, channelFuture.cause());
             }
-            connectedServerNodes.put(address, handler);
         });
     }
 
     /**
-     * TODO 重新链接服务端
+     * 延迟后重新连接服务端
      *
-     * @param address
-     * @param serverAddress
-     * @param serverPort
-     * @param handler
+     * @param address 服务地址，格式：ip:port
+     * @param handler 连接处理器
+     * @param delay   延迟时间，单位：毫秒
      */
-    public void reconnect(String address, String serverAddress, String serverPort, NettyClientHandler handler, MessageProtocol protocol) {
+    public void reconnect(String address, NettyClientHandler handler, long delay) {
         loopGroup.schedule(() -> {
+            if (!handler.getPool().contains(handler)) {
+                // 连接池已关闭或连接已移除
+                return;
+            }
             if (logger.isDebugEnabled()){
-                logger.info("Netty client start reconnect, address:{}", address);
+                logger.debug("Netty client start reconnect, address:{}", address);
             }
-            startClient(address, serverAddress, serverPort, handler, protocol);
-        }, CommonConstant.RECONNECT_SECONDS, TimeUnit.SECONDS);
+            connect(address, handler);
+        }, delay, TimeUnit.MILLISECONDS);
     }
 }
@@ -1,27 +1,35 @@
 package org.season.ymir.client.handler;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.handler.timeout.IdleStateEvent;
-import io.netty.util.ReferenceCountUtil;
-import org.season.ymir.client.YmirNettyClient;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.season.ymir.client.pool.ConnectionPool;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.base.SerializationTypeEnum;
 import org.season.ymir.common.constant.CommonConstant;
 import org.season.ymir.common.exception.RpcException;
+import org.season.ymir.common.exception.RpcTimeoutException;
 import org.season.ymir.common.model.YmirFuture;
+import org.season.ymir.common.model.YmirMethodTable;
+import org.season.ymir.common.model.YmirNettyMessage;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
-import org.season.ymir.core.protocol.MessageProtocol;
+import org.season.ymir.common.utils.YmirThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -35,9 +43,9 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
     private static Logger logger = LoggerFactory.getLogger(NettyClientHandler.class);
 
     /**
-     * 编码器
+     * 序列化方式
      */
-    private MessageProtocol messageProtocol;
+    private byte serialization;
 
     /**
      * 远程请求地址
@@ -45,49 +53,138 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
     private String remoteAddress;
 
     /**
-     * 等待通道建立最大时间
+     * 通道
      */
-    static final int CHANNEL_WAIT_TIME = 4;
+    private volatile Channel channel;
+
     /**
-     * 等待响应最大时间
+     * 本连接的等待响应表
      */
-    static final int RESPONSE_WAIT_TIME = 8;
+    private final PendingRequestTable pendingRequests;
 
     /**
-     * 通道
+     * 所属连接池
      */
-    private volatile Channel channel;
+    private final ConnectionPool pool;
+
+    /**
+     * 请求超时时间轮，所有连接共享，超时的请求以{@link RpcTimeoutException}完成并移出等待表
+     */
+    private static final HashedWheelTimer TIMEOUT_TIMER = new HashedWheelTimer(new YmirThreadFactory("timeout"), 10, TimeUnit.MILLISECONDS);
+
+    /**
+     * 通道激活后完成，通道建立前发出的请求在此排队
+     */
+    private volatile CompletableFuture<Channel> activeFuture = new CompletableFuture<>();
 
-    private static Map<String, YmirFuture<YmirResponse>> requestMap = new ConcurrentHashMap<String, YmirFuture<YmirResponse>>();
+    /**
+     * 最近一次心跳往返时间，单位：纳秒，-1表示尚未测得
+     */
+    private volatile long lastRtt = -1;
 
-    private CountDownLatch latch = new CountDownLatch(1);
+    /**
+     * 平滑心跳往返时间，新样本权重1/8，单位：纳秒，-1表示尚未测得
+     */
+    private volatile long smoothedRtt = -1;
+
+    /**
+     * 通道不可写时请求是否快速失败
+     */
+    private final boolean failFastWhenUnwritable;
 
-    public NettyClientHandler(MessageProtocol messageProtocol, String remoteAddress) {
-        this.messageProtocol = messageProtocol;
+    /**
+     * 通道不可写时等待发送的请求，通道恢复可写后由IO线程按序写出，数量受等待响应表容量限制
+     */
+    private final Queue<WaitingWrite> waitingWrites = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 连接建立后是否获取服务端方法表
+     */
+    private final boolean methodIdRouting;
+
+    /**
+     * 服务端分配的方法id，key: 服务名，value: 方法签名与方法id；收到方法表前为空，请求按服务名与方法名路由
+     */
+    private volatile Map<String, Map<String, Integer>> methodIds = Collections.emptyMap();
+
+    /**
+     * 心跳间隔，单位：毫秒
+     */
+    private final long heartbeatInterval;
+
+    /**
+     * 心跳任务，连接建立后在IO线程上按固定间隔执行
+     */
+    private ScheduledFuture<?> heartbeatTask;
+
+    /**
+     * 上一次心跳时已分配的请求id，仅IO线程访问
+     */
+    private long lastRequestId;
+
+    /**
+     * 最近一次发现请求的时间，单位：纳秒，仅IO线程访问
+     */
+    private long lastBusyNanos;
+
+    public NettyClientHandler(String protocol, String remoteAddress, int maxPendingRequests, boolean failFastWhenUnwritable, boolean methodIdRouting, long heartbeatInterval, ConnectionPool pool) {
+        this.serialization = SerializationTypeEnum.getCode(protocol);
         this.remoteAddress = remoteAddress;
-    }
-    @Override
-    public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
-        this.channel = ctx.channel();
-        latch.countDown();
+        this.pendingRequests = new PendingRequestTable(maxPendingRequests);
+        this.failFastWhenUnwritable = failFastWhenUnwritable;
+        this.methodIdRouting = methodIdRouting;
+        this.heartbeatInterval = Math.max(1, heartbeatInterval);
+        this.pool = pool;
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         logger.debug("Connect to server successfully:{}", ctx);
+        if (pool.isClosed()) {
+            // 连接建立期间连接池已关闭
+            ctx.close();
+            return;
+        }
+        this.channel = ctx.channel();
+        if (methodIdRouting) {
+            // 不支持方法表的服务端忽略该消息，请求继续按服务名与方法名路由
+            ctx.writeAndFlush(new YmirNettyMessage(MessageTypeEnum.METHOD_TABLE_REQUEST, serialization, 0, null));
+        }
+        // 心跳与连接是否繁忙无关，按固定间隔发送，繁忙连接同样能测得往返时间
+        this.lastRequestId = pendingRequests.lastRequestId();
+        this.lastBusyNanos = System.nanoTime();
+        this.heartbeatTask = ctx.executor().scheduleAtFixedRate(() -> heartbeat(ctx), heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        pool.onActive(this);
+        activeFuture.complete(ctx.channel());
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         logger.debug("Client reads message:{}", msg);
-        ByteBuf byteBuf = (ByteBuf) msg;
-        byte[] resp = new byte[byteBuf.readableBytes()];
-        byteBuf.readBytes(resp);
-        // 手动回收
-        ReferenceCountUtil.release(byteBuf);
-        YmirResponse response = messageProtocol.unmarshallingResponse(resp);
-        YmirFuture<YmirResponse> future = requestMap.get(response.getRequestId());
-        future.setResponse(response);
+        YmirNettyMessage message = (YmirNettyMessage) msg;
+        if (message.getMessageType() == MessageTypeEnum.HEARTBEAT_RESPONSE) {
+            // 心跳请求id为发送时的System.nanoTime()
+            long rtt = System.nanoTime() - message.getRequestId();
+            lastRtt = rtt;
+            smoothedRtt = smoothedRtt < 0 ? rtt : smoothedRtt + ((rtt - smoothedRtt) >> 3);
+            return;
+        }
+        if (message.getMessageType() == MessageTypeEnum.METHOD_TABLE_RESPONSE) {
+            methodIds = toMethodIds((YmirMethodTable) message.getBody());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Receive {} method ids from {}", ((YmirMethodTable) message.getBody()).size(), remoteAddress);
+            }
+            return;
+        }
+        if (message.getMessageType() != MessageTypeEnum.RESPONSE) {
+            return;
+        }
+        YmirFuture<YmirResponse> future = pendingRequests.remove(message.getRequestId());
+        if (future != null) {
+            future.setResponse((YmirResponse) message.getBody());
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Response of request {} arrives after timeout, discard it", message.getRequestId());
+        }
     }
 
     @Override
@@ -101,50 +198,264 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
         ctx.flush();
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            drainWaitingWrites(ctx.channel());
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         super.channelInactive(ctx);
-        // TODO 发起重连
+        this.channel = null;
+        if (Objects.nonNull(heartbeatTask)) {
+            heartbeatTask.cancel(false);
+            heartbeatTask = null;
+        }
+        this.activeFuture = new CompletableFuture<>();
+        // 重连后的服务端可能重新分配了方法id
+        this.methodIds = Collections.emptyMap();
         logger.error("channel inactive with remoteAddress:[{}]",remoteAddress);
-        YmirNettyClient.connectedServerNodes.remove(remoteAddress);
+        // 退避后重连，空闲关闭的连接已移出连接池，不再重连
+        pool.onInactive(this);
+        // 连接断开，等待中的请求立即失败
+        pendingRequests.failAll(new RpcException("Channel inactive with remoteAddress:" + remoteAddress));
+        waitingWrites.clear();
     }
 
-    @Override
-    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
-        // TODO 空闲时，向服务端发起一次心跳
-        if (evt instanceof IdleStateEvent){
-            if (logger.isDebugEnabled()){
-                logger.debug("Client send heart beat");
-            }
-            YmirRequest request = new YmirRequest();
-            request.setRequestId(CommonConstant.HEART_BEAT_REQUEST);
-            ctx.writeAndFlush(request).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+    /**
+     * 发送一次心跳，超出最小连接数且持续{@link CommonConstant#READ_TIMEOUT_SECONDS}秒没有请求的连接直接关闭
+     *
+     * @param ctx 通道上下文
+     */
+    private void heartbeat(ChannelHandlerContext ctx) {
+        long now = System.nanoTime();
+        long requestId = pendingRequests.lastRequestId();
+        if (requestId != lastRequestId || pendingRequests.size() > 0) {
+            lastRequestId = requestId;
+            lastBusyNanos = now;
+        } else if (now - lastBusyNanos >= TimeUnit.SECONDS.toNanos(CommonConstant.READ_TIMEOUT_SECONDS) && pool.shrink(this)) {
+            logger.debug("Close idle connection:{}", ctx.channel());
+            ctx.channel().close();
             return;
         }
-        super.userEventTriggered(ctx, evt);
+        if (logger.isDebugEnabled()){
+            logger.debug("Client send heart beat");
+        }
+        YmirNettyMessage heartbeat = new YmirNettyMessage(MessageTypeEnum.HEARTBEAT_REQUEST, serialization, now, null);
+        ctx.writeAndFlush(heartbeat).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
     }
 
-    public YmirResponse sendRequest(YmirRequest request) {
-        YmirResponse response;
+    /**
+     * 异步发送请求，不阻塞调用线程，由IO线程在收到响应时完成返回的Future，超时由时间轮完成
+     *
+     * @param request 请求
+     * @param timeout 超时时间，单位：毫秒
+     * @return {@link CompletableFuture}
+     */
+    public CompletableFuture<YmirResponse> sendRequest(YmirRequest request, long timeout) {
         YmirFuture<YmirResponse> future = new YmirFuture<YmirResponse>();
-        requestMap.put(request.getRequestId(), future);
+        long requestId;
         try {
-            byte[] data = messageProtocol.marshalling(request);
-            ByteBuf reqBuf = Unpooled.buffer(data.length);
-            reqBuf.writeBytes(data);
-            ReferenceCountUtil.release(reqBuf);
-            if (latch.await(CHANNEL_WAIT_TIME, TimeUnit.SECONDS)){
-                channel.writeAndFlush(reqBuf);
-                // 等待响应
-                response = future.get(RESPONSE_WAIT_TIME, TimeUnit.SECONDS);
-            }else {
-                throw new RpcException("establish channel time out");
+            requestId = pendingRequests.put(future);
+        } catch (RpcException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        request.setRequestId(requestId);
+        Timeout timeoutTask = TIMEOUT_TIMER.newTimeout(task -> future.completeExceptionally(
+                new RpcTimeoutException("Request " + request.getServiceName() + "#" + request.getMethod() + " to " + remoteAddress + " timeout after " + timeout + "ms")),
+                timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((response, cause) -> {
+            pendingRequests.remove(future);
+            timeoutTask.cancel();
+        });
+        YmirNettyMessage message = new YmirNettyMessage(MessageTypeEnum.REQUEST, serialization, requestId, request);
+        message.setCompressor(request.getCompressor());
+        message.setResponseCompressor(request.getCompressor());
+        message.setMethodId(methodId(request));
+        Channel current = this.channel;
+        if (current != null && current.isActive()) {
+            send(current, message, future);
+        } else {
+            activeFuture.whenComplete((activeChannel, cause) -> {
+                if (Objects.nonNull(cause)) {
+                    future.completeExceptionally(cause);
+                } else {
+                    send(activeChannel, message, future);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 连接建立失败，等待通道建立的请求以连接异常失败，下次重连使用新的{@link #activeFuture}
+     *
+     * @param cause 失败原因
+     */
+    public void onConnectFailure(Throwable cause) {
+        CompletableFuture<Channel> failed = this.activeFuture;
+        this.activeFuture = new CompletableFuture<>();
+        failed.completeExceptionally(new RpcException("Connect to " + remoteAddress + " failed, cause:" + (Objects.isNull(cause) ? "unknown" : cause.getMessage())));
+    }
+
+    /**
+     * 查找服务端为请求方法分配的方法id
+     *
+     * @param request 请求
+     * @return 方法id，未获取方法表或方法不在表中时返回0
+     */
+    private int methodId(YmirRequest request) {
+        if (Objects.isNull(request.getSignature())) {
+            return 0;
+        }
+        Map<String, Integer> ids = methodIds.get(request.getServiceName());
+        Integer id = Objects.isNull(ids) ? null : ids.get(request.getSignature());
+        return Objects.isNull(id) ? 0 : id;
+    }
+
+    private static Map<String, Map<String, Integer>> toMethodIds(YmirMethodTable table) {
+        Map<String, Map<String, Integer>> ids = new HashMap<>();
+        for (int i = 0; i < table.size(); i++) {
+            ids.computeIfAbsent(table.getServiceName(i), key -> new HashMap<>()).put(table.getSignature(i), i + 1);
+        }
+        return ids;
+    }
+
+    /**
+     * 通道可写时直接写出；不可写时按配置快速失败，或排队等待通道恢复可写；已完成的请求不再发送
+     *
+     * @param channel 通道
+     * @param message 请求消息
+     * @param future  请求结果
+     */
+    private void send(Channel channel, YmirNettyMessage message, YmirFuture<YmirResponse> future) {
+        if (future.isDone()) {
+            // 等待通道建立期间已超时或被取消，不再发送
+            return;
+        }
+        if (channel.isWritable() && waitingWrites.isEmpty()) {
+            write(channel, message, future);
+            return;
+        }
+        if (failFastWhenUnwritable) {
+            future.completeExceptionally(new RpcException("Channel to " + remoteAddress + " is not writable"));
+            return;
+        }
+        waitingWrites.offer(new WaitingWrite(message, future));
+        // 入队前通道可能已恢复可写，由IO线程再检查一次
+        if (channel.isWritable()) {
+            channel.eventLoop().execute(() -> drainWaitingWrites(channel));
+        }
+    }
+
+    /**
+     * 写出等待中的请求，直到通道再次不可写，已超时的请求直接丢弃
+     *
+     * @param channel 通道
+     */
+    private void drainWaitingWrites(Channel channel) {
+        WaitingWrite waiting;
+        while (channel.isWritable() && (waiting = waitingWrites.poll()) != null) {
+            if (!waiting.future.isDone()) {
+                write(channel, waiting.message, waiting.future);
             }
-        } catch (Exception e) {
-            throw new RpcException(e.getMessage());
-        } finally {
-            requestMap.remove(request.getRequestId());
         }
-        return response;
+    }
+
+    private void write(Channel channel, YmirNettyMessage message, YmirFuture<YmirResponse> future) {
+        channel.writeAndFlush(message).addListener((ChannelFutureListener) channelFuture -> {
+            if (!channelFuture.isSuccess()) {
+                future.completeExceptionally(new RpcException("send request failed, cause:" + channelFuture.cause().getMessage()));
+            }
+        });
+    }
+
+    /**
+     * 等待响应的请求数
+     *
+     * @return 请求数
+     */
+    public int getPendingCount() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * 关闭连接，在该连接上等待建立的请求立即失败，连接断开后不再重连
+     */
+    public void close() {
+        Channel current = this.channel;
+        if (Objects.nonNull(current)) {
+            current.close();
+        }
+        activeFuture.completeExceptionally(new RpcException("Connection to " + remoteAddress + " closed"));
+    }
+
+    /**
+     * 连接是否已建立
+     *
+     * @return 是否已建立
+     */
+    public boolean isActive() {
+        Channel current = this.channel;
+        return current != null && current.isActive();
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * 最近一次心跳往返时间
+     *
+     * @return 单位：纳秒，-1表示尚未测得
+     */
+    public long getLastRtt() {
+        return lastRtt;
+    }
+
+    /**
+     * 平滑心跳往返时间
+     *
+     * @return 单位：纳秒，-1表示尚未测得
+     */
+    public long getSmoothedRtt() {
+        return smoothedRtt;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public CompletableFuture<Channel> getActiveFuture() {
+        return activeFuture;
+    }
+
+    /**
+     * 连接已建立且可写
+     *
+     * @return 是否可写
+     */
+    public boolean isWritable() {
+        Channel current = this.channel;
+        return current != null && current.isActive() && current.isWritable();
+    }
+
+    /**
+     * 等待通道恢复可写的请求
+     */
+    private static final class WaitingWrite {
+
+        private final YmirNettyMessage message;
+
+        private final YmirFuture<YmirResponse> future;
+
+        private WaitingWrite(YmirNettyMessage message, YmirFuture<YmirResponse> future) {
+            this.message = message;
+            this.future = future;
+        }
     }
 }
@@ -0,0 +1,123 @@
+package org.season.ymir.client.handler;
+
+import org.season.ymir.common.exception.RpcException;
+import org.season.ymir.common.model.YmirFuture;
+import org.season.ymir.common.model.YmirResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单个连接的等待响应表，以请求id对容量取模定位槽位，无锁且不装箱
+ * <p>
+ * 请求id由表自身生成，槽位仍被未完成的请求占用时跳过该id，因此同一时刻每个槽位至多对应一个请求
+ *
+ * @author KevinClair
+ */
+public class PendingRequestTable {
+
+    private final AtomicReferenceArray<YmirFuture<YmirResponse>> slots;
+
+    private final int mask;
+
+    /**
+     * 请求id生成器
+     */
+    private final AtomicLong requestId = new AtomicLong();
+
+    /**
+     * 等待中的请求数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public PendingRequestTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 分配请求id并放入表中
+     *
+     * @param future 请求对应的Future
+     * @return 请求id
+     */
+    public long put(YmirFuture<YmirResponse> future) {
+        for (int i = 0; i <= mask; i++) {
+            long id = requestId.incrementAndGet();
+            int index = (int) (id & mask);
+            if (slots.get(index) == null) {
+                future.setRequestId(id);
+                if (slots.compareAndSet(index, null, future)) {
+                    size.incrementAndGet();
+                    return id;
+                }
+            }
+        }
+        throw new RpcException("Too many pending requests on one connection, max:" + slots.length());
+    }
+
+    /**
+     * 根据请求id取出并移除Future
+     *
+     * @param id 请求id
+     * @return Future，不存在或已被移除时返回null
+     */
+    public YmirFuture<YmirResponse> remove(long id) {
+        int index = (int) (id & mask);
+        YmirFuture<YmirResponse> future = slots.get(index);
+        if (future != null && future.getRequestId() == id && slots.compareAndSet(index, future, null)) {
+            size.decrementAndGet();
+            return future;
+        }
+        return null;
+    }
+
+    /**
+     * 移除指定的Future，槽位已被其他请求占用时不做处理
+     *
+     * @param future Future
+     */
+    public void remove(YmirFuture<YmirResponse> future) {
+        if (slots.compareAndSet((int) (future.getRequestId() & mask), future, null)) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * 以指定异常完成表中所有请求，仅扫描本连接的槽位
+     *
+     * @param cause 异常
+     */
+    public void failAll(Throwable cause) {
+        for (int i = 0; i <= mask; i++) {
+            YmirFuture<YmirResponse> future = slots.get(i);
+            if (future != null && slots.compareAndSet(i, future, null)) {
+                size.decrementAndGet();
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * 等待中的请求数
+     *
+     * @return 请求数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 最近分配的请求id，未变化说明期间没有新请求
+     *
+     * @return 请求id
+     */
+    public long lastRequestId() {
+        return requestId.get();
+    }
+}
@@ -0,0 +1,24 @@
+package org.season.ymir.client.pool;
+
+import org.season.ymir.client.handler.NettyClientHandler;
+import org.season.ymir.spi.annodation.SPI;
+
+import java.util.List;
+
+/**
+ * 连接选择器，从同一服务地址的多个连接中选择一个发送请求
+ *
+ * @author KevinClair
+ **/
+@SPI("leastPending")
+public interface ChannelSelector {
+
+    /**
+     * 选择连接
+     *
+     * @param address  服务地址
+     * @param handlers 连接快照，不为空，选择期间不会变化
+     * @return {@link NettyClientHandler}
+     */
+    NettyClientHandler select(String address, List<NettyClientHandler> handlers);
+}
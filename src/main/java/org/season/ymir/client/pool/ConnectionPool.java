@@ -0,0 +1,385 @@
+package org.season.ymir.client.pool;
+
+import io.netty.channel.Channel;
+import org.apache.commons.lang3.StringUtils;
+import org.season.ymir.client.YmirNettyClient;
+import org.season.ymir.client.handler.NettyClientHandler;
+import org.season.ymir.common.base.ConnectionStateEnum;
+import org.season.ymir.core.limit.ConcurrencyLimiter;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.spi.loader.ExtensionLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 单个服务地址的连接池
+ * <p>
+ * 保持至少{@code connections}个连接，所选连接的等待请求数达到{@code connectionPendingThreshold}或不可写，且所有连接均已建立时扩容一个连接，
+ * 直到{@code maxConnections}；多出的连接持续一个空闲周期没有请求时由心跳任务关闭
+ * <p>
+ * 连接断开或建立失败时保留在连接池中，按带抖动的指数退避重连，连续失败次数按地址统计，任一连接建立成功后清零。
+ * 没有可用连接且存在失败时地址处于{@link ConnectionStateEnum#TRANSIENT_FAILURE}，请求快速失败，负载均衡跳过该地址
+ *
+ * @author KevinClair
+ **/
+public class ConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private static final NettyClientHandler[] EMPTY_HANDLERS = new NettyClientHandler[0];
+
+    /**
+     * 服务地址，格式：ip:port
+     */
+    private final String address;
+
+    private final String protocol;
+
+    private final YmirNettyClient client;
+
+    private final int minConnections;
+
+    private final int maxConnections;
+
+    private final int pendingThreshold;
+
+    private final int maxPendingRequests;
+
+    private final boolean failFastWhenUnwritable;
+
+    private final boolean methodIdRouting;
+
+    /**
+     * 心跳间隔，单位：毫秒
+     */
+    private final long heartbeatInterval;
+
+    private final ChannelSelector selector;
+
+    /**
+     * 重连初始延迟，单位：毫秒
+     */
+    private final long reconnectInitialDelay;
+
+    /**
+     * 重连最大延迟，单位：毫秒
+     */
+    private final long reconnectMaxDelay;
+
+    /**
+     * 连续建立连接失败的次数
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * 连接列表，包含正在建立的连接
+     */
+    private final List<NettyClientHandler> handlers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 对该地址的自适应并发限制器，未配置时为null
+     */
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * 提供者已从注册中心移除，连接池关闭后不再建立与重连连接
+     */
+    private volatile boolean closed;
+
+    public ConnectionPool(String address, String protocol, YmirNettyClient client, YmirConfigurationProperty property) {
+        this.address = address;
+        this.protocol = protocol;
+        this.client = client;
+        this.minConnections = Math.max(1, property.getConnections());
+        this.maxConnections = Math.max(minConnections, property.getMaxConnections());
+        this.pendingThreshold = property.getConnectionPendingThreshold();
+        this.maxPendingRequests = property.getMaxPendingRequests();
+        this.failFastWhenUnwritable = property.isFailFastWhenUnwritable();
+        this.methodIdRouting = property.isMethodIdRouting();
+        this.heartbeatInterval = property.getHeartbeatInterval();
+        this.selector = ExtensionLoader.getExtensionLoader(ChannelSelector.class).getLoader(property.getChannelSelector());
+        this.reconnectInitialDelay = Math.max(1, property.getReconnectInitialDelay());
+        this.reconnectMaxDelay = Math.max(reconnectInitialDelay, property.getReconnectMaxDelay());
+        this.limiter = StringUtils.isBlank(property.getClientLimiter()) ? null : new ConcurrencyLimiter(property.getClientLimiter(),
+                property.getLimiterInitialLimit(), property.getLimiterMinLimit(), property.getLimiterMaxLimit());
+    }
+
+    /**
+     * 选择一个连接发送请求，连接不足时补齐；优先选择可写的连接，其次是已建立的连接，都没有时请求在正在建立的连接上排队
+     *
+     * @return {@link NettyClientHandler}，地址处于{@link ConnectionStateEnum#TRANSIENT_FAILURE}时返回null
+     */
+    public NettyClientHandler acquire() {
+        if (closed) {
+            return null;
+        }
+        if (handlers.size() < minConnections) {
+            fill();
+        }
+        // 选择器只读取快照，连接在选择期间被移除不会导致越界
+        List<NettyClientHandler> snapshot = Arrays.asList(handlers.toArray(EMPTY_HANDLERS));
+        List<NettyClientHandler> candidates = filter(snapshot, NettyClientHandler::isWritable);
+        if (candidates.isEmpty()) {
+            candidates = filter(snapshot, NettyClientHandler::isActive);
+        }
+        if (candidates.isEmpty()) {
+            if (failures.get() > 0) {
+                return null;
+            }
+            candidates = snapshot;
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        NettyClientHandler handler = selector.select(address, candidates);
+        if ((handler.getPendingCount() >= pendingThreshold || !handler.isWritable()) && handlers.size() < maxConnections) {
+            grow();
+        }
+        return handler;
+    }
+
+    /**
+     * 满足条件的连接，全部满足时直接返回快照
+     *
+     * @param snapshot  连接快照
+     * @param condition 条件
+     * @return 连接列表
+     */
+    private static List<NettyClientHandler> filter(List<NettyClientHandler> snapshot, Predicate<NettyClientHandler> condition) {
+        for (NettyClientHandler handler : snapshot) {
+            if (!condition.test(handler)) {
+                List<NettyClientHandler> matched = new ArrayList<>(snapshot.size());
+                for (NettyClientHandler each : snapshot) {
+                    if (condition.test(each)) {
+                        matched.add(each);
+                    }
+                }
+                return matched;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 并发数是否已达到自适应上限
+     *
+     * @return 未配置限制器时返回false
+     */
+    public boolean isAtLimit() {
+        return Objects.nonNull(limiter) && limiter.getInflight() >= limiter.getLimit();
+    }
+
+    /**
+     * 地址的连接状态
+     *
+     * @return {@link ConnectionStateEnum}
+     */
+    public ConnectionStateEnum getState() {
+        if (isReady()) {
+            return ConnectionStateEnum.READY;
+        }
+        if (handlers.isEmpty()) {
+            return ConnectionStateEnum.IDLE;
+        }
+        return failures.get() > 0 ? ConnectionStateEnum.TRANSIENT_FAILURE : ConnectionStateEnum.CONNECTING;
+    }
+
+    /**
+     * 连接建立成功
+     *
+     * @param handler 连接
+     */
+    public void onActive(NettyClientHandler handler) {
+        if (failures.getAndSet(0) > 0) {
+            logger.info("Connection to {} recovered", address);
+        }
+    }
+
+    /**
+     * 连接断开，仍在连接池中的连接退避后重连
+     *
+     * @param handler 连接
+     */
+    public void onInactive(NettyClientHandler handler) {
+        if (!handlers.contains(handler)) {
+            return;
+        }
+        client.reconnect(address, handler, backoff(failures.get()));
+    }
+
+    /**
+     * 连接建立失败，在该连接上等待的请求立即失败，累加失败次数并退避后重连
+     *
+     * @param handler 连接
+     * @param cause   失败原因
+     */
+    public void onConnectFailure(NettyClientHandler handler, Throwable cause) {
+        handler.onConnectFailure(cause);
+        if (!handlers.contains(handler)) {
+            return;
+        }
+        long delay = backoff(failures.incrementAndGet());
+        logger.warn("Connection to {} failed, reconnect after {}ms", address, delay);
+        client.reconnect(address, handler, delay);
+    }
+
+    /**
+     * 带抖动的指数退避，延迟在[d/2, d]之间，d = min(reconnectMaxDelay, reconnectInitialDelay * 2^failures)
+     *
+     * @param failures 连续失败次数
+     * @return 延迟时间，单位：毫秒
+     */
+    private long backoff(int failures) {
+        long delay = Math.min(reconnectMaxDelay, reconnectInitialDelay << Math.min(failures, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * 预热，建立最小连接数的连接
+     *
+     * @return 所有连接建立后完成
+     */
+    public CompletableFuture<Void> warmUp() {
+        fill();
+        return CompletableFuture.allOf(handlers.stream().map(NettyClientHandler::getActiveFuture).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 是否至少有一个已建立的连接
+     *
+     * @return 是否可用
+     */
+    public boolean isReady() {
+        for (NettyClientHandler handler : handlers) {
+            if (handler.isActive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 补齐到最小连接数
+     */
+    private synchronized void fill() {
+        while (!closed && handlers.size() < minConnections) {
+            connect();
+        }
+    }
+
+    /**
+     * 扩容一个连接，已有连接正在建立时不再扩容
+     */
+    private synchronized void grow() {
+        if (closed || handlers.size() >= maxConnections) {
+            return;
+        }
+        for (NettyClientHandler handler : handlers) {
+            if (!handler.isActive()) {
+                return;
+            }
+        }
+        connect();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Connection pool of {} grows to {}", address, handlers.size());
+        }
+    }
+
+    private void connect() {
+        NettyClientHandler handler = new NettyClientHandler(protocol, address, maxPendingRequests, failFastWhenUnwritable, methodIdRouting, heartbeatInterval, this);
+        handlers.add(handler);
+        client.connect(address, handler);
+    }
+
+    /**
+     * 关闭连接池，移除并关闭所有连接，已安排的重连不再执行
+     */
+    public synchronized void close() {
+        closed = true;
+        List<NettyClientHandler> removed = new ArrayList<>(handlers);
+        handlers.clear();
+        for (NettyClientHandler handler : removed) {
+            handler.close();
+        }
+        logger.info("Connection pool of {} closed", address);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 连接是否仍在连接池中，被移除的连接不再重连
+     *
+     * @param handler 连接
+     * @return 是否在连接池中
+     */
+    public boolean contains(NettyClientHandler handler) {
+        return handlers.contains(handler);
+    }
+
+    /**
+     * 连接空闲，超出最小连接数时从连接池中移除
+     *
+     * @param handler 连接
+     * @return 是否移除，移除后由调用方关闭连接
+     */
+    public synchronized boolean shrink(NettyClientHandler handler) {
+        if (handlers.size() <= minConnections) {
+            return false;
+        }
+        return handlers.remove(handler);
+    }
+
+    /**
+     * 各连接等待响应的请求数
+     *
+     * @return key: 本地地址，未建立的连接为connecting-序号，value: 等待请求数
+     */
+    public Map<String, Integer> getInFlightRequests() {
+        return perChannel(NettyClientHandler::getPendingCount);
+    }
+
+    /**
+     * 各连接的平滑心跳往返时间
+     *
+     * @return key: 本地地址，未建立的连接为connecting-序号，value: 往返时间，单位：微秒，-1表示尚未测得
+     */
+    public Map<String, Long> getHeartbeatRtt() {
+        return perChannel(handler -> handler.getSmoothedRtt() < 0 ? -1L : TimeUnit.NANOSECONDS.toMicros(handler.getSmoothedRtt()));
+    }
+
+    private <T> Map<String, T> perChannel(Function<NettyClientHandler, T> metric) {
+        Map<String, T> values = new LinkedHashMap<>();
+        int index = 0;
+        for (NettyClientHandler handler : handlers) {
+            Channel channel = handler.getChannel();
+            String key = Objects.nonNull(channel) ? String.valueOf(channel.localAddress()) : "connecting-" + index;
+            values.put(key, metric.apply(handler));
+            index++;
+        }
+        return values;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
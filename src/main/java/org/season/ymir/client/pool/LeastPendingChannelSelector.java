@@ -0,0 +1,34 @@
+package org.season.ymir.client.pool;
+
+import org.season.ymir.client.handler.NettyClientHandler;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少等待请求数，等待数相同时从随机位置开始避免总是选中第一个连接
+ *
+ * @author KevinClair
+ **/
+public class LeastPendingChannelSelector implements ChannelSelector {
+
+    @Override
+    public NettyClientHandler select(String address, List<NettyClientHandler> handlers) {
+        int size = handlers.size();
+        if (size == 1) {
+            return handlers.get(0);
+        }
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        NettyClientHandler selected = null;
+        int least = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            NettyClientHandler handler = handlers.get((offset + i) % size);
+            int pending = handler.getPendingCount();
+            if (pending < least) {
+                least = pending;
+                selected = handler;
+            }
+        }
+        return selected;
+    }
+}
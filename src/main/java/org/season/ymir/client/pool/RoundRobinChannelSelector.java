@@ -0,0 +1,28 @@
+package org.season.ymir.client.pool;
+
+import org.season.ymir.client.handler.NettyClientHandler;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询，每个服务地址单独计数
+ *
+ * @author KevinClair
+ **/
+public class RoundRobinChannelSelector implements ChannelSelector {
+
+    private final ConcurrentMap<String, AtomicInteger> sequences = new ConcurrentHashMap<>(16);
+
+    @Override
+    public NettyClientHandler select(String address, List<NettyClientHandler> handlers) {
+        int size = handlers.size();
+        if (size == 1) {
+            return handlers.get(0);
+        }
+        AtomicInteger sequence = sequences.computeIfAbsent(address, key -> new AtomicInteger());
+        return handlers.get((sequence.getAndIncrement() & Integer.MAX_VALUE) % size);
+    }
+}
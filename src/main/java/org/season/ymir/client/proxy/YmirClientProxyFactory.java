@@ -1,19 +1,37 @@
 package org.season.ymir.client.proxy;
 
+import org.apache.commons.lang3.StringUtils;
 import org.season.ymir.client.YmirNettyClient;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
 import org.season.ymir.common.entity.ServiceBean;
+import org.season.ymir.common.entity.ServiceMethod;
+import org.season.ymir.common.exception.RpcBusyException;
 import org.season.ymir.common.exception.RpcException;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
-import org.season.ymir.common.utils.LoadBalanceUtils;
-import org.season.ymir.core.protocol.MessageProtocol;
+import org.season.ymir.core.annotation.YmirMethod;
+import org.season.ymir.core.annotation.YmirReference;
+import org.season.ymir.core.balance.LoadBalance;
+import org.season.ymir.server.discovery.ProviderSnapshot;
+import org.season.ymir.server.discovery.ServiceDirectory;
 import org.season.ymir.server.discovery.YmirServiceDiscovery;
+import org.season.ymir.spi.loader.ExtensionLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.InvocationHandler;
+import org.springframework.cglib.proxy.NoOp;
 import org.springframework.util.CollectionUtils;
 
-import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 
 /**
  * 客户端代理
@@ -22,94 +40,414 @@ import java.util.*;
  **/
 public class YmirClientProxyFactory {
 
+    private static final Logger logger = LoggerFactory.getLogger(YmirClientProxyFactory.class);
+
     private YmirServiceDiscovery serviceDiscovery;
 
     private YmirNettyClient netClient;
 
-    private MessageProtocol protocol;
+    private String protocol;
+
+    /**
+     * 全局调用超时时间，单位：毫秒
+     */
+    private long timeout;
 
-    private Map<Class<?>, Object> objectCache = new HashMap<>();
+    /**
+     * 全局压缩方式
+     */
+    private String compressor;
 
     /**
-     * 通过Java动态代理获取服务代理类
+     * 全局负载均衡方式
+     */
+    private String loadBalance;
+
+    /**
+     * 服务端过载时换其他提供者重试的次数
+     */
+    private int busyRetries;
+
+    private Map<Object, Object> objectCache = new HashMap<>();
+
+    /**
+     * 获取服务代理类
      *
      * @param clazz
      * @param <T>
      * @return
      */
     public <T> T getProxy(Class<T> clazz) {
-        return (T) objectCache.computeIfAbsent(clazz, clz ->
-                Proxy.newProxyInstance(clz.getClassLoader(), new Class[]{clz}, new ClientInvocationHandler(clz))
-        );
+        return getProxy(clazz, null);
+    }
+
+    /**
+     * 获取服务代理类，相同配置的引用共享同一个代理
+     * <p>
+     * 代理类由cglib生成，接口的每个方法对应一个{@link ClientMethodInterceptor}，由生成的代码直接调用，
+     * 服务名、参数类型、超时时间、压缩方式与负载均衡在创建代理时确定；{@link Object}的方法不发起远程调用
+     *
+     * @param clazz
+     * @param reference 引用配置，为空时使用全局配置
+     * @param <T>
+     * @return
+     */
+    public <T> T getProxy(Class<T> clazz, YmirReference reference) {
+        Object key = Objects.isNull(reference) ? clazz : Arrays.asList(clazz, reference);
+        return (T) objectCache.computeIfAbsent(key, k -> createProxy(clazz, reference));
+    }
+
+    private Object createProxy(Class<?> clazz, YmirReference reference) {
+        long serviceTimeout = timeout;
+        byte serviceCompressor = CompressorTypeEnum.getCode(compressor);
+        String serviceLoadBalance = loadBalance;
+        Map<String, Long> methodTimeouts = new HashMap<>();
+        Map<String, Byte> methodCompressors = new HashMap<>();
+        if (Objects.nonNull(reference)) {
+            if (reference.timeout() > 0) {
+                serviceTimeout = reference.timeout();
+            }
+            if (StringUtils.isNotBlank(reference.compressor())) {
+                serviceCompressor = CompressorTypeEnum.getCode(reference.compressor());
+            }
+            if (StringUtils.isNotBlank(reference.loadBalance())) {
+                serviceLoadBalance = reference.loadBalance();
+            }
+            for (YmirMethod ymirMethod : reference.methods()) {
+                if (ymirMethod.timeout() > 0) {
+                    methodTimeouts.put(ymirMethod.name(), ymirMethod.timeout());
+                }
+                if (StringUtils.isNotBlank(ymirMethod.compressor())) {
+                    methodCompressors.put(ymirMethod.name(), CompressorTypeEnum.getCode(ymirMethod.compressor()));
+                }
+            }
+        }
+        LoadBalance loadBalance = ExtensionLoader.getExtensionLoader(LoadBalance.class).getLoader(serviceLoadBalance);
+        ServiceDirectory directory = serviceDiscovery.getDirectory(clazz.getName());
+        ServiceCallbackFilter filter = new ServiceCallbackFilter(clazz);
+        Method[] methods = filter.getMethods();
+        Callback[] callbacks = new Callback[methods.length + 1];
+        callbacks[0] = NoOp.INSTANCE;
+        for (int i = 0; i < methods.length; i++) {
+            Method method = methods[i];
+            callbacks[i + 1] = new ClientMethodInterceptor(directory, method,
+                    methodTimeouts.getOrDefault(method.getName(), serviceTimeout),
+                    methodCompressors.getOrDefault(method.getName(), serviceCompressor), loadBalance);
+        }
+        Enhancer enhancer = new Enhancer();
+        enhancer.setClassLoader(clazz.getClassLoader());
+        // 代理类定义在接口所在的包下，JDK 16以上需指定contextClass，否则需要--add-opens
+        enhancer.setContextClass(clazz);
+        enhancer.setInterfaces(new Class[]{clazz});
+        enhancer.setCallbackFilter(filter);
+        enhancer.setCallbacks(callbacks);
+        return enhancer.create();
     }
 
+    /**
+     * 远程方法调用，每个接口方法一个实例
+     */
+    private class ClientMethodInterceptor implements InvocationHandler {
+
+        /**
+         * 服务的提供者目录
+         */
+        private final ServiceDirectory directory;
 
-    private class ClientInvocationHandler implements InvocationHandler {
+        private final String methodName;
 
-        private Class<?> clazz;
+        /**
+         * 参数类型，所有请求共享
+         */
+        private final Class<?>[] parameterTypes;
 
-        public ClientInvocationHandler(Class<?> clazz) {
-            this.clazz = clazz;
-        }
+        /**
+         * 方法签名，用于查找服务端分配的方法id
+         */
+        private final String signature;
+
+        private final long timeout;
 
+        private final byte compressor;
+
+        private final LoadBalance loadBalance;
+
+        /**
+         * 是否异步接口，返回值为{@link CompletableFuture}或{@link CompletionStage}
+         */
+        private final boolean async;
+
+        private ClientMethodInterceptor(ServiceDirectory directory, Method method, long timeout, byte compressor, LoadBalance loadBalance) {
+            this.directory = directory;
+            this.methodName = method.getName();
+            this.parameterTypes = method.getParameterTypes();
+            this.signature = ServiceMethod.signature(methodName, parameterTypes);
+            this.timeout = timeout;
+            this.compressor = compressor;
+            this.loadBalance = loadBalance;
+            this.async = method.getReturnType() == CompletableFuture.class || method.getReturnType() == CompletionStage.class;
+        }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             // 1.获得服务信息
-            String serviceName = clazz.getName();
-            List<ServiceBean> services = getServiceList(serviceName);
-            // TODO 此处address地址
-            ServiceBean service = LoadBalanceUtils.selector(services, "", "");
+            List<ServiceBean> services = getServiceList(directory);
             // 2.构造request对象
             YmirRequest request = new YmirRequest();
-            request.setRequestId(UUID.randomUUID().toString());
-            request.setServiceName(service.getName());
-            request.setMethod(method.getName());
+            request.setMethod(methodName);
             request.setParameters(args);
-            request.setParameterTypes(method.getParameterTypes());
+            request.setParameterTypes(parameterTypes);
+            request.setSignature(signature);
+            request.setCompressor(compressor);
             // 3.发送请求
-            YmirResponse response = netClient.sendRequest(request, service, protocol);
-            if (Objects.isNull(response)){
-                throw new RpcException("the response is null");
+            CompletableFuture<Object> result = call(request, availableServices(services), loadBalance, timeout, busyRetries);
+            if (async) {
+                // 异步接口直接返回，由IO线程完成
+                return result;
+            }
+            // 4.同步调用阻塞等待异步结果，超时由时间轮完成Future
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 接口方法对应第i+1个回调，{@link Object}的方法对应{@link NoOp}；同一接口的过滤器相等，代理类只生成一次
+     */
+    private static final class ServiceCallbackFilter implements CallbackFilter {
+
+        private final Class<?> clazz;
+
+        /**
+         * 接口方法，按签名排序
+         */
+        private final Method[] methods;
+
+        private final Map<Method, Integer> indexes = new HashMap<>();
+
+        private ServiceCallbackFilter(Class<?> clazz) {
+            this.clazz = clazz;
+            this.methods = clazz.getMethods();
+            Arrays.sort(methods, Comparator.comparing((Method method) -> ServiceMethod.signature(method.getName(), method.getParameterTypes()))
+                    .thenComparing(method -> method.getReturnType().getName())
+                    .thenComparing(method -> method.getDeclaringClass().getName()));
+            for (int i = 0; i < methods.length; i++) {
+                indexes.put(methods[i], i + 1);
+            }
+        }
+
+        @Override
+        public int accept(Method method) {
+            return indexes.getOrDefault(method, 0);
+        }
+
+        public Method[] getMethods() {
+            return methods;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ServiceCallbackFilter && ((ServiceCallbackFilter) o).clazz == clazz;
+        }
+
+        @Override
+        public int hashCode() {
+            return clazz.hashCode();
+        }
+    }
+
+    /**
+     * 选择提供者发送请求，提供者返回{@link ServiceStatusEnum#SERVER_BUSY}时换其他提供者重试
+     *
+     * @param request     请求
+     * @param services    候选提供者
+     * @param loadBalance 负载均衡
+     * @param timeout     超时时间，单位：毫秒
+     * @param retries     剩余重试次数
+     * @return 返回值
+     */
+    private CompletableFuture<Object> call(YmirRequest request, List<ServiceBean> services, LoadBalance loadBalance, long timeout, int retries) {
+        // TODO 此处address地址
+        ServiceBean service = loadBalance.load(services, "");
+        request.setServiceName(service.getName());
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        netClient.sendRequest(request, service, protocol, timeout).whenComplete((response, cause) -> {
+            boolean busy = Objects.isNull(cause)
+                    ? Objects.nonNull(response) && response.getStatusEnum() == ServiceStatusEnum.SERVER_BUSY
+                    : cause instanceof RpcBusyException;
+            if (busy && retries > 0 && services.size() > 1) {
+                // 服务端过载或客户端达到并发上限，请求未执行，可以安全重试
+                List<ServiceBean> others = new ArrayList<>(services);
+                others.remove(service);
+                call(request, others, loadBalance, timeout, retries - 1).whenComplete((value, throwable) -> {
+                    if (Objects.nonNull(throwable)) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+                return;
+            }
+            if (Objects.nonNull(cause)) {
+                result.completeExceptionally(cause);
+                return;
             }
-            // 4.结果处理
-            if (response.getException() != null) {
-                return response.getException();
+            try {
+                result.complete(resolveResponse(response));
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
             }
+        });
+        return result;
+    }
 
-            return !Objects.isNull(response.getException())?response.getException():response.getReturnValue();
+    /**
+     * 响应结果处理，远程异常直接抛出
+     *
+     * @param response 响应
+     * @return 返回值
+     * @throws Throwable
+     */
+    private Object resolveResponse(YmirResponse response) throws Throwable {
+        if (Objects.isNull(response)){
+            throw new RpcException("the response is null");
+        }
+        if (response.getStatusEnum() == ServiceStatusEnum.SERVER_BUSY) {
+            throw response.getException() instanceof RpcBusyException ? response.getException() : new RpcBusyException("Server is busy");
         }
+        if (Objects.nonNull(response.getException())) {
+            throw response.getException();
+        }
+        if (response.getStatusEnum() == ServiceStatusEnum.NOT_FOUND) {
+            throw new RpcException("No provider for service on remote server");
+        }
+        return response.getReturnValue();
     }
 
     /**
-     * 根据服务名获取可用的服务地址列表
-     * @param serviceName
-     * @return
+     * 过滤处于连接失败状态的提供者，再过滤并发数达到上限的提供者，过滤后为空时保留上一步的列表
+     *
+     * @param services 服务提供者
+     * @return 可用的服务提供者
+     */
+    private List<ServiceBean> availableServices(List<ServiceBean> services) {
+        List<ServiceBean> available = filter(services, service -> netClient.isAvailable(service.getAddress()));
+        if (available.isEmpty()) {
+            return services;
+        }
+        List<ServiceBean> unsaturated = filter(available, service -> !netClient.isAtLimit(service.getAddress()));
+        return unsaturated.isEmpty() ? available : unsaturated;
+    }
+
+    /**
+     * 满足条件的提供者，全部满足时直接返回原列表
+     *
+     * @param services  服务提供者
+     * @param condition 条件
+     * @return 提供者列表
      */
-    private List<ServiceBean> getServiceList(String serviceName) throws Exception {
-        List<ServiceBean> services;
-        synchronized (serviceName){
-            if (serviceDiscovery.isEmpty(serviceName)) {
-                services = serviceDiscovery.findServiceList(serviceName);
+    private List<ServiceBean> filter(List<ServiceBean> services, Predicate<ServiceBean> condition) {
+        // 快照列表按下标访问，避免创建迭代器
+        for (int i = 0; i < services.size(); i++) {
+            if (!condition.test(services.get(i))) {
+                List<ServiceBean> matched = new ArrayList<>(services.size());
+                for (ServiceBean each : services) {
+                    if (condition.test(each)) {
+                        matched.add(each);
+                    }
+                }
+                return matched;
+            }
+        }
+        return services;
+    }
+
+    /**
+     * 预先连接服务的所有提供者
+     *
+     * @param serviceName 服务名
+     * @return 所有提供者的最小连接数全部建立后完成
+     * @throws Exception 服务没有提供者时抛出
+     */
+    public CompletableFuture<Void> warmUp(String serviceName) throws Exception {
+        List<ServiceBean> services = getServiceList(serviceDiscovery.getDirectory(serviceName));
+        return CompletableFuture.allOf(services.stream()
+                .map(service -> netClient.warmUp(service.getAddress(), protocol))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 服务是否至少有一个提供者已建立连接
+     *
+     * @param serviceName 服务名
+     * @return 是否可用
+     */
+    public boolean isReady(String serviceName) {
+        List<ServiceBean> services = serviceDiscovery.get(serviceName);
+        if (CollectionUtils.isEmpty(services)) {
+            return false;
+        }
+        return services.stream().anyMatch(service -> netClient.isReady(service.getAddress()));
+    }
+
+    /**
+     * 获取服务的提供者列表，只读取一次目录快照；快照为空时加锁从注册中心加载
+     *
+     * @param directory 服务的提供者目录
+     * @return 不可修改的提供者列表
+     * @throws Exception 服务没有提供者时抛出
+     */
+    private List<ServiceBean> getServiceList(ServiceDirectory directory) throws Exception {
+        ProviderSnapshot snapshot = directory.getSnapshot();
+        if (!snapshot.isEmpty()) {
+            return snapshot.getProviders();
+        }
+        String serviceName = directory.getServiceName();
+        synchronized (directory){
+            snapshot = directory.getSnapshot();
+            if (snapshot.isEmpty()) {
+                List<ServiceBean> services = serviceDiscovery.findServiceList(serviceName);
                 if (CollectionUtils.isEmpty(services)) {
                     throw new RpcException("No provider available for service "+ serviceName);
                 }
-                serviceDiscovery.put(serviceName, services);
-            } else {
-                services = serviceDiscovery.get(serviceName);
+                snapshot = directory.update(services);
+            }
+        }
+        return snapshot.getProviders();
+    }
+
+    /**
+     * 注册中心变更时替换服务的提供者列表，不再被任何服务引用的地址关闭连接池，停止重连
+     *
+     * @param serviceName 服务名
+     * @param providers   当前的提供者列表
+     */
+    public void updateProviders(String serviceName, List<ServiceBean> providers) {
+        List<ServiceBean> previous = serviceDiscovery.getDirectory(serviceName).getSnapshot().getProviders();
+        serviceDiscovery.put(serviceName, providers);
+        for (ServiceBean provider : previous) {
+            if (!serviceDiscovery.hasProvider(provider.getAddress())) {
+                logger.info("Provider {} of {} removed, close connections", provider.getAddress(), serviceName);
+                netClient.close(provider.getAddress());
             }
         }
-        return services;
     }
 
     public YmirServiceDiscovery getServiceDiscovery() {
         return serviceDiscovery;
     }
 
-    public YmirClientProxyFactory(YmirServiceDiscovery serviceDiscovery, YmirNettyClient netClient, MessageProtocol protocol) {
+    public YmirClientProxyFactory(YmirServiceDiscovery serviceDiscovery, YmirNettyClient netClient, String protocol, long timeout, String compressor, String loadBalance, int busyRetries) {
         this.serviceDiscovery = serviceDiscovery;
         this.netClient = netClient;
         this.protocol = protocol;
+        this.timeout = timeout;
+        this.compressor = compressor;
+        this.loadBalance = loadBalance;
+        this.busyRetries = busyRetries;
     }
 
     public YmirClientProxyFactory() {
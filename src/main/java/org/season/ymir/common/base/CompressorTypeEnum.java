@@ -0,0 +1,72 @@
+package org.season.ymir.common.base;
+
+/**
+ * 压缩方式枚举，对应报文头中的压缩字段
+ *
+ * @author KevinClair
+ */
+public enum CompressorTypeEnum {
+
+    /**
+     * 不压缩
+     */
+    NONE((byte) 0, "none"),
+    /**
+     * gzip，JDK实现
+     */
+    GZIP((byte) 1, "gzip"),
+    /**
+     * snappy
+     */
+    SNAPPY((byte) 2, "snappy");
+
+    private byte code;
+
+    private String name;
+
+    CompressorTypeEnum(byte code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 根据压缩编码获取压缩方式
+     *
+     * @param code 压缩编码
+     * @return {@link CompressorTypeEnum}
+     */
+    public static CompressorTypeEnum valueOf(byte code) {
+        for (CompressorTypeEnum type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compressor code: " + code);
+    }
+
+    /**
+     * 根据压缩名称获取压缩编码，名称为空时不压缩
+     *
+     * @param name 压缩名称
+     * @return 压缩编码
+     */
+    public static byte getCode(String name) {
+        for (CompressorTypeEnum type : values()) {
+            if (type.name.equals(name)) {
+                return type.code;
+            }
+        }
+        if (name == null || name.isEmpty()) {
+            return NONE.code;
+        }
+        throw new IllegalArgumentException("Unknown compressor name: " + name);
+    }
+}
@@ -0,0 +1,36 @@
+package org.season.ymir.common.base;
+
+/**
+ * 服务地址的连接状态
+ *
+ * @author KevinClair
+ */
+public enum ConnectionStateEnum {
+
+    /**
+     * 尚未建立过连接
+     */
+    IDLE("IDLE"),
+    /**
+     * 正在建立连接，请求在连接建立后发出
+     */
+    CONNECTING("CONNECTING"),
+    /**
+     * 至少有一个可用连接
+     */
+    READY("READY"),
+    /**
+     * 所有连接均不可用，等待退避重连，请求快速失败
+     */
+    TRANSIENT_FAILURE("TRANSIENT FAILURE");
+
+    private String desc;
+
+    ConnectionStateEnum(String desc) {
+        this.desc = desc;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+}
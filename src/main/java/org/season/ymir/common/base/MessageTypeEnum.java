@@ -0,0 +1,66 @@
+package org.season.ymir.common.base;
+
+/**
+ * 消息类型枚举，对应报文头中的消息类型字段
+ *
+ * @author KevinClair
+ */
+public enum MessageTypeEnum {
+
+    /**
+     * 请求
+     */
+    REQUEST((byte) 1),
+    /**
+     * 响应
+     */
+    RESPONSE((byte) 2),
+    /**
+     * 心跳请求
+     */
+    HEARTBEAT_REQUEST((byte) 3),
+    /**
+     * 心跳响应
+     */
+    HEARTBEAT_RESPONSE((byte) 4),
+    /**
+     * 单向请求，服务端不返回响应
+     */
+    ONEWAY((byte) 5),
+    /**
+     * 方法表请求，客户端在连接建立后发送
+     */
+    METHOD_TABLE_REQUEST((byte) 6),
+    /**
+     * 方法表响应，消息体为服务端分配的方法id
+     */
+    METHOD_TABLE_RESPONSE((byte) 7);
+
+    private static final MessageTypeEnum[] TYPES = new MessageTypeEnum[8];
+
+    static {
+        for (MessageTypeEnum type : values()) {
+            TYPES[type.code] = type;
+        }
+    }
+
+    private byte code;
+
+    MessageTypeEnum(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * 根据报文头中的类型编码获取消息类型
+     *
+     * @param code 类型编码
+     * @return {@link MessageTypeEnum}，未知类型返回null
+     */
+    public static MessageTypeEnum valueOf(byte code) {
+        return code > 0 && code < TYPES.length ? TYPES[code] : null;
+    }
+}
@@ -0,0 +1,46 @@
+package org.season.ymir.common.base;
+
+/**
+ * 隔离线程池满载时的拒绝策略
+ *
+ * @author KevinClair
+ */
+public enum RejectionPolicyEnum {
+
+    /**
+     * 立即返回错误响应
+     */
+    ABORT("abort"),
+    /**
+     * 交给服务端公共派发线程池执行
+     */
+    SHARED("shared");
+
+    private String name;
+
+    RejectionPolicyEnum(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 根据名称获取拒绝策略，名称为空时为{@link #ABORT}
+     *
+     * @param name 策略名称
+     * @return {@link RejectionPolicyEnum}
+     */
+    public static RejectionPolicyEnum getPolicy(String name) {
+        for (RejectionPolicyEnum policy : values()) {
+            if (policy.name.equals(name)) {
+                return policy;
+            }
+        }
+        if (name == null || name.isEmpty()) {
+            return ABORT;
+        }
+        throw new IllegalArgumentException("Unknown rejection policy: " + name);
+    }
+}
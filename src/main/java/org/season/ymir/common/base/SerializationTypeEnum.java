@@ -0,0 +1,72 @@
+package org.season.ymir.common.base;
+
+/**
+ * 序列化方式枚举，对应报文头中的序列化字段
+ *
+ * @author KevinClair
+ */
+public enum SerializationTypeEnum {
+
+    /**
+     * protoBuf
+     */
+    PROTOBUF((byte) 1, "protoBuf"),
+    /**
+     * kryo
+     */
+    KRYO((byte) 2, "kryo"),
+    /**
+     * gson
+     */
+    GSON((byte) 3, "gson");
+
+    private byte code;
+
+    private String name;
+
+    SerializationTypeEnum(byte code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 根据序列化编码获取序列化方式
+     *
+     * @param code 序列化编码
+     * @return {@link SerializationTypeEnum}
+     */
+    public static SerializationTypeEnum valueOf(byte code) {
+        for (SerializationTypeEnum type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown serialization code: " + code);
+    }
+
+    /**
+     * 根据协议名称获取序列化编码，名称为空时使用默认的protoBuf
+     *
+     * @param name 协议名称
+     * @return 序列化编码
+     */
+    public static byte getCode(String name) {
+        for (SerializationTypeEnum type : values()) {
+            if (type.name.equals(name)) {
+                return type.code;
+            }
+        }
+        if (name == null || name.isEmpty()) {
+            return PROTOBUF.code;
+        }
+        throw new IllegalArgumentException("Unknown serialization name: " + name);
+    }
+}
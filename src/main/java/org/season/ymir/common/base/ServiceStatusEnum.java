@@ -10,22 +10,32 @@ public enum ServiceStatusEnum {
     /**
      * SUCCESS
      */
-    SUCCESS(200, "SUCCESS"),
+    SUCCESS(200, (byte) 0, "SUCCESS"),
     /**
      * ERROR
      */
-    ERROR(500, "ERROR"),
+    ERROR(500, (byte) 1, "ERROR"),
     /**
      * NOT FOUND
      */
-    NOT_FOUND(404, "NOT FOUND");
+    NOT_FOUND(404, (byte) 2, "NOT FOUND"),
+    /**
+     * 服务端过载，请求未执行，可在其他提供者上重试
+     */
+    SERVER_BUSY(503, (byte) 3, "SERVER BUSY");
 
     private int code;
 
+    /**
+     * 报文头中的状态标识
+     */
+    private byte flag;
+
     private String desc;
 
-    ServiceStatusEnum(int code, String desc) {
+    ServiceStatusEnum(int code, byte flag, String desc) {
         this.code = code;
+        this.flag = flag;
         this.desc = desc;
     }
 
@@ -33,7 +43,26 @@ public enum ServiceStatusEnum {
         return code;
     }
 
+    public byte getFlag() {
+        return flag;
+    }
+
     public String getDesc() {
         return desc;
     }
+
+    /**
+     * 根据报文头中的状态标识获取服务状态
+     *
+     * @param flag 状态标识
+     * @return {@link ServiceStatusEnum}
+     */
+    public static ServiceStatusEnum valueOf(byte flag) {
+        for (ServiceStatusEnum status : values()) {
+            if (status.flag == flag) {
+                return status;
+            }
+        }
+        return ERROR;
+    }
 }
@@ -33,22 +33,27 @@ public class CommonConstant {
     public static final String PATH_DELIMITER = "/";
 
     /**
-     * 重连频率，单位：秒
+     * 心跳超时时间
      */
-    public static final Integer RECONNECT_SECONDS = 20;
+    public static final Integer READ_TIMEOUT_SECONDS = 60;
 
     /**
-     * 心跳超时时间
+     * 协议魔数
      */
-    public static final Integer READ_TIMEOUT_SECONDS = 60;
+    public static final short MAGIC_NUMBER = (short) 0x5959;
+
+    /**
+     * 协议版本
+     */
+    public static final byte PROTOCOL_VERSION = 2;
 
     /**
-     * 心跳请求
+     * 报文头长度：魔数(2) + 版本(1) + 消息类型(1) + 序列化方式(1) + 压缩方式(1) + 状态(1) + 请求id(8) + 消息体长度(4)
      */
-    public static final String HEART_BEAT_REQUEST = "HEART_BEAT_REQUEST";
+    public static final int HEADER_LENGTH = 19;
 
     /**
-     * 心跳响应
+     * 请求报文头的状态字段取该值时，路由信息为方法id，否则为服务名与方法名
      */
-    public static final String HEART_BEAT_RESPONSE = "HEART_BEAT_RESPONSE";
+    public static final byte ROUTE_BY_METHOD_ID = 1;
 }
@@ -1,5 +1,11 @@
 package org.season.ymir.common.entity;
 
+import org.season.ymir.core.handler.MethodInvoker;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * ServiceBean缓存对象
  *
@@ -21,6 +27,11 @@ public class ServiceBeanCache {
      */
     private Object bean;
 
+    /**
+     * 方法调用表，key: 方法名，value: 同名方法的调用器
+     */
+    private Map<String, MethodInvoker[]> invokers = Collections.emptyMap();
+
     public String getName() {
         return name;
     }
@@ -35,6 +46,11 @@ public class ServiceBeanCache {
 
     public void setClazz(Class<?> clazz) {
         this.clazz = clazz;
+        this.invokers = Objects.isNull(clazz) ? Collections.emptyMap() : MethodInvoker.resolve(clazz);
+    }
+
+    public Map<String, MethodInvoker[]> getInvokers() {
+        return invokers;
     }
 
     public Object getBean() {
@@ -50,7 +66,27 @@ public class ServiceBeanCache {
 
     public ServiceBeanCache(String name, Class<?> clazz, Object bean) {
         this.name = name;
-        this.clazz = clazz;
         this.bean = bean;
+        setClazz(clazz);
+    }
+
+    /**
+     * 根据方法名与参数类型查找调用器
+     *
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @return {@link MethodInvoker}，不存在时返回null
+     */
+    public MethodInvoker getInvoker(String methodName, Class<?>[] parameterTypes) {
+        MethodInvoker[] candidates = invokers.get(methodName);
+        if (Objects.isNull(candidates)) {
+            return null;
+        }
+        for (MethodInvoker invoker : candidates) {
+            if (invoker.matches(parameterTypes)) {
+                return invoker;
+            }
+        }
+        return null;
     }
 }
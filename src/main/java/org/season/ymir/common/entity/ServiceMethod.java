@@ -0,0 +1,80 @@
+package org.season.ymir.common.entity;
+
+import org.season.ymir.core.handler.MethodInvoker;
+
+import java.util.StringJoiner;
+
+/**
+ * 服务端方法表中的方法，方法id在注册时分配
+ *
+ * @author KevinClair
+ **/
+public class ServiceMethod {
+
+    /**
+     * 方法id，从1开始
+     */
+    private final int id;
+
+    /**
+     * 服务名
+     */
+    private final String serviceName;
+
+    /**
+     * 方法签名，格式：方法名(参数类型,...)
+     */
+    private final String signature;
+
+    /**
+     * 方法所属的服务
+     */
+    private final ServiceBeanCache service;
+
+    private final MethodInvoker invoker;
+
+    public ServiceMethod(int id, ServiceBeanCache service, MethodInvoker invoker) {
+        this.id = id;
+        this.serviceName = service.getName();
+        this.service = service;
+        this.invoker = invoker;
+        this.signature = signature(invoker.getMethod().getName(), invoker.getParameterTypes());
+    }
+
+    /**
+     * 生成方法签名，客户端与服务端使用相同格式
+     *
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @return 方法名(参数类型,...)
+     */
+    public static String signature(String methodName, Class<?>[] parameterTypes) {
+        StringJoiner joiner = new StringJoiner(",", methodName + "(", ")");
+        if (parameterTypes != null) {
+            for (Class<?> type : parameterTypes) {
+                joiner.add(type.getName());
+            }
+        }
+        return joiner.toString();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public ServiceBeanCache getService() {
+        return service;
+    }
+
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+}
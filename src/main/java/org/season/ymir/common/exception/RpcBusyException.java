@@ -0,0 +1,13 @@
+package org.season.ymir.common.exception;
+
+/**
+ * 服务端过载拒绝请求，请求未执行
+ *
+ * @author KevinClair
+ **/
+public class RpcBusyException extends RpcException {
+
+    public RpcBusyException(String message) {
+        super(message);
+    }
+}
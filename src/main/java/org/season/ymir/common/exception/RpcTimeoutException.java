@@ -0,0 +1,13 @@
+package org.season.ymir.common.exception;
+
+/**
+ * Rpc调用超时异常
+ *
+ * @author KevinClair
+ **/
+public class RpcTimeoutException extends RpcException {
+
+    public RpcTimeoutException(String message) {
+        super(message);
+    }
+}
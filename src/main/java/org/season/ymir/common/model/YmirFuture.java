@@ -1,70 +1,28 @@
 package org.season.ymir.common.model;
 
-import java.util.concurrent.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Future对象
+ * Future对象，由IO线程在收到响应时完成
  *
  * @author KevinClair
  */
-public class YmirFuture<T> implements Future<T> {
+public class YmirFuture<T> extends CompletableFuture<T> {
 
-    private T response;
     /**
-     * 因为请求和响应是一一对应的，所以这里是1
+     * 请求id，由所属连接的等待表分配
      */
-    private CountDownLatch countDownLatch = new CountDownLatch(1);
-    /**
-     * Future的请求时间，用于计算Future是否超时
-     */
-    private long beginTime = System.currentTimeMillis();
-
-    @Override
-    public boolean cancel(boolean mayInterruptIfRunning) {
-        return false;
-    }
-
-    @Override
-    public boolean isCancelled() {
-        return false;
-    }
-
-    @Override
-    public boolean isDone() {
-        if (response != null) {
-            return true;
-        }
-        return false;
-    }
+    private long requestId;
 
-    /**
-     * 获取响应，直到有结果才返回
-     *
-     * @return
-     * @throws InterruptedException
-     * @throws ExecutionException
-     */
-
-    @Override
-    public T get() throws InterruptedException, ExecutionException {
-        countDownLatch.await();
-        return response;
-    }
-
-    @Override
-    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        if (countDownLatch.await(timeout,unit)){
-            return response;
-        }
-        return null;
+    public void setResponse(T response) {
+        complete(response);
     }
 
-    public void setResponse(T response) {
-        this.response = response;
-        countDownLatch.countDown();
+    public long getRequestId() {
+        return requestId;
     }
 
-    public long getBeginTime() {
-        return beginTime;
+    public void setRequestId(long requestId) {
+        this.requestId = requestId;
     }
 }
@@ -0,0 +1,50 @@
+package org.season.ymir.common.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务端方法表，第i个方法的id为i+1，由编解码器直接读写，不经过序列化协议
+ *
+ * @author KevinClair
+ **/
+public class YmirMethodTable {
+
+    /**
+     * 服务名
+     */
+    private final List<String> serviceNames;
+
+    /**
+     * 方法签名，格式：方法名(参数类型,...)
+     */
+    private final List<String> signatures;
+
+    public YmirMethodTable(int size) {
+        this.serviceNames = new ArrayList<>(size);
+        this.signatures = new ArrayList<>(size);
+    }
+
+    /**
+     * 追加下一个方法
+     *
+     * @param serviceName 服务名
+     * @param signature   方法签名
+     */
+    public void add(String serviceName, String signature) {
+        serviceNames.add(serviceName);
+        signatures.add(signature);
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public String getServiceName(int index) {
+        return serviceNames.get(index);
+    }
+
+    public String getSignature(int index) {
+        return signatures.get(index);
+    }
+}
@@ -0,0 +1,154 @@
+package org.season.ymir.common.model;
+
+import io.netty.buffer.ByteBuf;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.entity.ServiceMethod;
+
+/**
+ * 网络传输消息，报文头字段与消息体
+ *
+ * @author KevinClair
+ */
+public class YmirNettyMessage {
+
+    /**
+     * 消息类型
+     */
+    private MessageTypeEnum messageType;
+
+    /**
+     * 序列化方式，{@link org.season.ymir.common.base.SerializationTypeEnum}
+     */
+    private byte serialization;
+
+    /**
+     * 消息体压缩方式，{@link org.season.ymir.common.base.CompressorTypeEnum}；编码时消息体达到阈值才压缩，解码后为实际使用的压缩方式
+     */
+    private byte compressor;
+
+    /**
+     * 请求方期望响应使用的压缩方式，{@link org.season.ymir.common.base.CompressorTypeEnum}
+     */
+    private byte responseCompressor;
+
+    /**
+     * 响应状态，{@link ServiceStatusEnum}
+     */
+    private byte status;
+
+    /**
+     * 请求id
+     */
+    private long requestId;
+
+    /**
+     * 请求路由使用的方法id，0表示按服务名与方法名路由
+     */
+    private int methodId;
+
+    /**
+     * 消息体
+     */
+    private Object body;
+
+    /**
+     * 尚未反序列化的消息体，由业务线程解码后释放
+     */
+    private ByteBuf payload;
+
+    /**
+     * 服务端按方法id解析出的服务方法，不参与编码，业务线程直接使用其调用器
+     */
+    private ServiceMethod serviceMethod;
+
+    public YmirNettyMessage() {
+    }
+
+    public YmirNettyMessage(MessageTypeEnum messageType, byte serialization, long requestId, Object body) {
+        this.messageType = messageType;
+        this.serialization = serialization;
+        this.requestId = requestId;
+        this.body = body;
+    }
+
+    public MessageTypeEnum getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(MessageTypeEnum messageType) {
+        this.messageType = messageType;
+    }
+
+    public byte getSerialization() {
+        return serialization;
+    }
+
+    public void setSerialization(byte serialization) {
+        this.serialization = serialization;
+    }
+
+    public byte getStatus() {
+        return status;
+    }
+
+    public void setStatus(byte status) {
+        this.status = status;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(long requestId) {
+        this.requestId = requestId;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    public void setBody(Object body) {
+        this.body = body;
+    }
+
+    public ByteBuf getPayload() {
+        return payload;
+    }
+
+    public void setPayload(ByteBuf payload) {
+        this.payload = payload;
+    }
+
+    public byte getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(byte compressor) {
+        this.compressor = compressor;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public void setMethodId(int methodId) {
+        this.methodId = methodId;
+    }
+
+    public byte getResponseCompressor() {
+        return responseCompressor;
+    }
+
+    public void setResponseCompressor(byte responseCompressor) {
+        this.responseCompressor = responseCompressor;
+    }
+
+    public ServiceMethod getServiceMethod() {
+        return serviceMethod;
+    }
+
+    public void setServiceMethod(ServiceMethod serviceMethod) {
+        this.serviceMethod = serviceMethod;
+    }
+}
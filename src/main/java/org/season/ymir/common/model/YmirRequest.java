@@ -11,15 +11,28 @@ import java.util.Map;
  */
 public class YmirRequest implements Serializable {
 
-    private String requestId;
     /**
-     * 请求的服务名
+     * 请求id，由报文头传输
      */
-    private String serviceName;
+    private transient long requestId;
     /**
-     * 请求调用的方法
+     * 请求的服务名，作为路由信息写在消息体头部
      */
-    private String method;
+    private transient String serviceName;
+    /**
+     * 请求调用的方法，作为路由信息写在消息体头部
+     */
+    private transient String method;
+
+    /**
+     * 压缩方式，{@link org.season.ymir.common.base.CompressorTypeEnum}，用于请求并期望响应使用
+     */
+    private transient byte compressor;
+
+    /**
+     * 方法签名，格式：方法名(参数类型,...)，客户端据此查找服务端分配的方法id
+     */
+    private transient String signature;
 
     private Map<String,String> headers = new HashMap<>();
 
@@ -27,11 +40,11 @@ public class YmirRequest implements Serializable {
 
     private Object[] parameters;
 
-    public String getRequestId() {
+    public long getRequestId() {
         return requestId;
     }
 
-    public void setRequestId(String requestId) {
+    public void setRequestId(long requestId) {
         this.requestId = requestId;
     }
 
@@ -74,4 +87,20 @@ public class YmirRequest implements Serializable {
     public void setParameters(Object[] parameters) {
         this.parameters = parameters;
     }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public byte getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(byte compressor) {
+        this.compressor = compressor;
+    }
 }
@@ -13,7 +13,10 @@ import java.util.Map;
  */
 public class YmirResponse implements Serializable {
 
-    private String requestId;
+    /**
+     * 请求id，由报文头传输
+     */
+    private transient long requestId;
 
     private Map<String, String> headers = new HashMap<>();
 
@@ -21,13 +24,16 @@ public class YmirResponse implements Serializable {
 
     private Exception exception;
 
-    private ServiceStatusEnum statusEnum;
+    /**
+     * 响应状态，由报文头传输
+     */
+    private transient ServiceStatusEnum statusEnum;
 
-    public String getRequestId() {
+    public long getRequestId() {
         return requestId;
     }
 
-    public void setRequestId(String requestId) {
+    public void setRequestId(long requestId) {
         this.requestId = requestId;
     }
 
@@ -9,8 +9,13 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.season.ymir.common.entity.ServiceBean;
 import org.season.ymir.common.entity.ServiceBeanCache;
+import org.season.ymir.common.entity.ServiceMethod;
+import org.season.ymir.core.handler.MethodInvoker;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 默认的服务注册抽象实现类
@@ -40,6 +45,11 @@ public abstract class DefaultAbstractServiceRegister implements ServiceRegister
                 }
             });
 
+    /**
+     * 方法表，下标+1为方法id，只追加不删除，连接期间分配的id保持不变
+     */
+    private final List<ServiceMethod> methods = new CopyOnWriteArrayList<>();
+
     @Override
     public ServiceBeanCache getBean(final String name) throws Exception {
         return service.get(name);
@@ -53,6 +63,30 @@ public abstract class DefaultAbstractServiceRegister implements ServiceRegister
         Class<?> classObject = Class.forName(serviceBean.getClazz());
         ServiceBeanCache serviceBeanCache = new ServiceBeanCache(serviceBean.getName(), classObject, classObject.newInstance());
         service.put(serviceBean.getName(), serviceBeanCache);
+        registerMethods(serviceBeanCache);
+    }
+
+    @Override
+    public ServiceMethod getMethod(final int methodId) {
+        return methodId > 0 && methodId <= methods.size() ? methods.get(methodId - 1) : null;
+    }
+
+    @Override
+    public List<ServiceMethod> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * 为服务的方法分配方法id
+     *
+     * @param serviceBeanCache 服务
+     */
+    private synchronized void registerMethods(final ServiceBeanCache serviceBeanCache) {
+        for (MethodInvoker[] invokers : serviceBeanCache.getInvokers().values()) {
+            for (MethodInvoker invoker : invokers) {
+                methods.add(new ServiceMethod(methods.size() + 1, serviceBeanCache, invoker));
+            }
+        }
     }
 }
 
@@ -2,6 +2,9 @@ package org.season.ymir.common.register;
 
 import org.season.ymir.common.entity.ServiceBean;
 import org.season.ymir.common.entity.ServiceBeanCache;
+import org.season.ymir.common.entity.ServiceMethod;
+
+import java.util.List;
 
 /**
  * 服务注册接口
@@ -26,4 +29,19 @@ public interface ServiceRegister {
      * @throws Exception
      */
     ServiceBeanCache getBean(final String name) throws Exception;
+
+    /**
+     * 根据方法id获取方法
+     *
+     * @param methodId 注册时分配的方法id
+     * @return {@link ServiceMethod}，不存在时返回null
+     */
+    ServiceMethod getMethod(final int methodId);
+
+    /**
+     * 已注册的全部方法，按方法id排序
+     *
+     * @return 方法列表
+     */
+    List<ServiceMethod> getMethods();
 }
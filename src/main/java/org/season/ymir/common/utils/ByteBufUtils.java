@@ -0,0 +1,38 @@
+package org.season.ymir.common.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ByteBuf读写工具
+ *
+ * @author KevinClair
+ **/
+public class ByteBufUtils {
+
+    /**
+     * 写入字符串，格式：长度(2) + UTF-8字节
+     *
+     * @param out   缓冲区
+     * @param value 字符串
+     */
+    public static void writeString(final ByteBuf out, final String value) {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        int length = ByteBufUtil.writeUtf8(out, value);
+        out.setShort(lengthIndex, length);
+    }
+
+    /**
+     * 读取{@link #writeString(ByteBuf, String)}写入的字符串
+     *
+     * @param in 缓冲区
+     * @return 字符串
+     */
+    public static String readString(final ByteBuf in) {
+        int length = in.readUnsignedShort();
+        return in.readCharSequence(length, StandardCharsets.UTF_8).toString();
+    }
+}
@@ -0,0 +1,44 @@
+package org.season.ymir.common.utils;
+
+import io.netty.buffer.ByteBuf;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.core.compress.Compressor;
+import org.season.ymir.spi.loader.ExtensionLoader;
+
+/**
+ * 压缩工具
+ *
+ * @author KevinClair
+ **/
+public class CompressorUtils {
+
+    /**
+     * 根据报文头中的压缩编码获取压缩实现
+     *
+     * @param compressor 压缩编码，不能为{@link CompressorTypeEnum#NONE}
+     * @return {@link Compressor}
+     */
+    public static Compressor getCompressor(final byte compressor) {
+        return ExtensionLoader.getExtensionLoader(Compressor.class).getLoader(CompressorTypeEnum.valueOf(compressor).getName());
+    }
+
+    /**
+     * 解压至新分配的缓冲区，解压后长度超过maxLength时抛出异常
+     *
+     * @param compressor 压缩编码
+     * @param in         压缩数据
+     * @param maxLength  解压后的最大长度，单位：字节
+     * @return 解压后的数据，由调用方释放
+     * @throws Exception
+     */
+    public static ByteBuf decompress(final byte compressor, final ByteBuf in, final int maxLength) throws Exception {
+        ByteBuf out = in.alloc().buffer(Math.min(in.readableBytes() * 2, maxLength), maxLength);
+        try {
+            getCompressor(compressor).decompress(in, out);
+            return out;
+        } catch (Exception e) {
+            out.release();
+            throw e;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.google.gson.stream.JsonWriter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.io.Reader;
 
 /**
  * Gson utils
@@ -55,6 +56,28 @@ public class GsonUtils {
         return GSON.fromJson(json, tClass);
     }
 
+    /**
+     * To json, write into the appendable.
+     *
+     * @param object the object
+     * @param writer the writer
+     */
+    public void toJson(final Object object, final Appendable writer) {
+        GSON.toJson(object, writer);
+    }
+
+    /**
+     * From json reader.
+     *
+     * @param <T>    the type parameter
+     * @param reader the reader
+     * @param tClass the t class
+     * @return the t
+     */
+    public <T> T fromJson(final Reader reader, final Class<T> tClass) {
+        return GSON.fromJson(reader, tClass);
+    }
+
     private static class StringTypeAdapter extends TypeAdapter<String> {
         @Override
         public void write(final JsonWriter out, final String value) throws IOException {
@@ -0,0 +1,23 @@
+package org.season.ymir.common.utils;
+
+import org.season.ymir.common.base.SerializationTypeEnum;
+import org.season.ymir.core.protocol.MessageProtocol;
+import org.season.ymir.spi.loader.ExtensionLoader;
+
+/**
+ * 序列化协议工具
+ *
+ * @author KevinClair
+ **/
+public class MessageProtocolUtils {
+
+    /**
+     * 根据报文头中的序列化编码获取序列化协议
+     *
+     * @param serialization 序列化编码
+     * @return {@link MessageProtocol}
+     */
+    public static MessageProtocol getProtocol(final byte serialization) {
+        return ExtensionLoader.getExtensionLoader(MessageProtocol.class).getLoader(SerializationTypeEnum.valueOf(serialization).getName());
+    }
+}
@@ -0,0 +1,63 @@
+package org.season.ymir.common.utils;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Netty传输层工具，Linux下native epoll可用时使用epoll，否则退回NIO
+ *
+ * @author KevinClair
+ **/
+public class NettyTransportUtils {
+
+    /**
+     * 是否使用epoll
+     *
+     * @param epollEnabled 配置是否开启epoll
+     * @return epoll开启且当前平台可用时返回true
+     */
+    public static boolean useEpoll(final boolean epollEnabled) {
+        return epollEnabled && Epoll.isAvailable();
+    }
+
+    /**
+     * 创建EventLoopGroup
+     *
+     * @param epoll   是否使用epoll
+     * @param threads 线程数，0表示使用Netty默认值
+     * @param name    线程名称
+     * @return {@link EventLoopGroup}
+     */
+    public static EventLoopGroup newEventLoopGroup(final boolean epoll, final int threads, final String name) {
+        YmirThreadFactory threadFactory = new YmirThreadFactory(name);
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    /**
+     * 服务端Channel类型
+     *
+     * @param epoll 是否使用epoll
+     * @return ServerChannel类型
+     */
+    public static Class<? extends ServerChannel> serverChannelClass(final boolean epoll) {
+        return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    /**
+     * 客户端Channel类型
+     *
+     * @param epoll 是否使用epoll
+     * @return SocketChannel类型
+     */
+    public static Class<? extends SocketChannel> channelClass(final boolean epoll) {
+        return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+}
@@ -6,6 +6,10 @@ import com.dyuproject.protostuff.ProtobufIOUtil;
 import com.dyuproject.protostuff.Schema;
 import com.dyuproject.protostuff.runtime.RuntimeSchema;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 
 /**
  * protostuff工具类
@@ -49,4 +53,55 @@ public class SerializingUtil {
         return t;
     }
 
+    /**
+     * 将目标类序列化写入输出流
+     *
+     * @param source
+     * @param out
+     * @param <T>
+     * @throws IOException
+     */
+    public static <T> void serialize(T source, OutputStream out) throws IOException {
+        Schema<T> schema = RuntimeSchema.getSchema((Class<T>) source.getClass());
+        LinkedBuffer buffer = LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE);
+        try {
+            ProtobufIOUtil.writeTo(out, source, schema, buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 将byte数组的指定区间反序列化为目标类
+     *
+     * @param source
+     * @param offset
+     * @param length
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    public static <T> T deserialize(byte[] source, int offset, int length, Class<T> clazz) {
+        Schema<T> schema = RuntimeSchema.getSchema(clazz);
+        T t = schema.newMessage();
+        ProtobufIOUtil.mergeFrom(source, offset, length, t, schema);
+        return t;
+    }
+
+    /**
+     * 将输入流反序列化为目标类
+     *
+     * @param in
+     * @param clazz
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public static <T> T deserialize(InputStream in, Class<T> clazz) throws IOException {
+        Schema<T> schema = RuntimeSchema.getSchema(clazz);
+        T t = schema.newMessage();
+        ProtobufIOUtil.mergeFrom(in, t, schema);
+        return t;
+    }
+
 }
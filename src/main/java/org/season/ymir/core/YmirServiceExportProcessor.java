@@ -11,11 +11,13 @@ import org.season.ymir.common.entity.ServiceBean;
 import org.season.ymir.common.register.ServiceRegister;
 import org.season.ymir.common.utils.YmirThreadFactory;
 import org.season.ymir.common.utils.ZkPathUtils;
+import org.season.ymir.core.annotation.YmirMethod;
 import org.season.ymir.core.annotation.YmirReference;
 import org.season.ymir.core.annotation.YmirService;
 import org.season.ymir.core.property.YmirConfigurationProperty;
 import org.season.ymir.core.zookeeper.ZookeeperNodeChangeListener;
 import org.season.ymir.server.YmirNettyServer;
+import org.season.ymir.server.bulkhead.BulkheadRegistry;
 import org.season.ymir.server.discovery.ZookeeperYmirServiceDiscovery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,9 +28,11 @@ import org.springframework.context.event.ContextRefreshedEvent;
 import java.lang.reflect.Field;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -51,14 +55,16 @@ public class YmirServiceExportProcessor implements ApplicationListener<ContextRe
     private YmirNettyServer nettyServer;
     private YmirClientProxyFactory proxyFactory;
     private CuratorFramework zkClient;
+    private BulkheadRegistry bulkheadRegistry;
     private YmirConfigurationProperty property;
 
-    public YmirServiceExportProcessor(ServiceRegister serviceRegister, YmirNettyServer nettyServer, YmirClientProxyFactory proxyFactory, CuratorFramework zkClient, YmirConfigurationProperty property) {
+    public YmirServiceExportProcessor(ServiceRegister serviceRegister, YmirNettyServer nettyServer, YmirClientProxyFactory proxyFactory, CuratorFramework zkClient, BulkheadRegistry bulkheadRegistry, YmirConfigurationProperty property) {
         this.executorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new YmirThreadFactory("service-export-"));
         this.serviceRegister = serviceRegister;
         this.nettyServer = nettyServer;
         this.proxyFactory = proxyFactory;
         this.zkClient = zkClient;
+        this.bulkheadRegistry = bulkheadRegistry;
         this.property = property;
     }
 
@@ -110,6 +116,8 @@ public class YmirServiceExportProcessor implements ApplicationListener<ContextRe
                         Class<?> superInterface = interfaces[0];
                         serviceBean = new ServiceBean(superInterface.getName(), clazz.getName(), service.protocol(), address, service.weight(), service.group(), service.version());
                     }
+                    // 隔离线程池
+                    registerBulkhead(serviceBean.getName(), service);
                     // register bean;
                     serviceRegister.registerBean(serviceBean);
                     logger.info("Service {} register success", obj.getClass().getName());
@@ -123,6 +131,47 @@ public class YmirServiceExportProcessor implements ApplicationListener<ContextRe
 
     }
 
+    /**
+     * 注册服务与方法的隔离线程池
+     *
+     * @param serviceName 服务名
+     * @param service     {@link YmirService}
+     */
+    private void registerBulkhead(String serviceName, YmirService service) {
+        bulkheadRegistry.register(serviceName, null, service.threads(), service.queues(), service.rejection());
+        for (YmirMethod method : service.methods()) {
+            bulkheadRegistry.register(serviceName, method.name(), method.threads(), method.queues(), method.rejection());
+        }
+    }
+
+    /**
+     * 预先连接引用服务的所有提供者，最多等待一个连接超时时间，未就绪的服务在首次调用时继续建立连接
+     *
+     * @param serviceList 引用的服务
+     */
+    private void warmUp(List<String> serviceList) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String serviceName : new LinkedHashSet<>(serviceList)) {
+            try {
+                futures.add(proxyFactory.warmUp(serviceName));
+            } catch (Exception e) {
+                logger.warn("Service {} warm up failed, message:{}", serviceName, e.getMessage());
+            }
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(property.getConnectTimeout(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // 超时或连接失败，不影响启动
+        }
+        for (String serviceName : new LinkedHashSet<>(serviceList)) {
+            if (proxyFactory.isReady(serviceName)) {
+                logger.info("Service {} is ready", serviceName);
+            } else {
+                logger.warn("Service {} is not ready after warm up", serviceName);
+            }
+        }
+    }
+
     private void referenceService(ApplicationContext context, String address) {
         String[] names = context.getBeanDefinitionNames();
         List<String> serviceList = new ArrayList<>();
@@ -144,25 +193,29 @@ public class YmirServiceExportProcessor implements ApplicationListener<ContextRe
                 field.setAccessible(true);
                 try {
                     // 设置代理对象
-                    field.set(object, proxyFactory.getProxy(fieldClass));
+                    field.set(object, proxyFactory.getProxy(fieldClass, reference));
                 } catch (IllegalAccessException e) {
                     logger.error("Service reference error, exception:{}", ExceptionUtils.getStackTrace(e));
                 }
                 serviceList.add(fieldClass.getName());
             }
         }
+        // 预热连接
+        if (property.isWarmUp()) {
+            warmUp(serviceList);
+        }
         // 注册子节点监听
         if (proxyFactory.getServiceDiscovery() instanceof ZookeeperYmirServiceDiscovery) {
-            ZookeeperYmirServiceDiscovery serverDiscovery = (ZookeeperYmirServiceDiscovery) proxyFactory.getServiceDiscovery();
             serviceList.forEach(name -> {
                 try {
                     // 节点监听
                     String servicePath = CommonConstant.PATH_DELIMITER + name +CommonConstant.PATH_DELIMITER + CommonConstant.ZK_SERVICE_PROVIDER_PATH;
                     final PathChildrenCache childrenCache = new PathChildrenCache(zkClient, servicePath, true);
+                    // 先注册监听，避免错过初始化事件
+                    childrenCache.getListenable().addListener(new ZookeeperNodeChangeListener(name, childrenCache, proxyFactory));
                     childrenCache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
-                    childrenCache.getListenable().addListener(new ZookeeperNodeChangeListener(serverDiscovery));
 
-                    String consumerNode = CommonConstant.PATH_DELIMITER + name +CommonConstant.PATH_DELIMITER + CommonConstant.ZK_SERVICE_PROVIDER_PATH;
+                    String consumerNode = CommonConstant.PATH_DELIMITER + name +CommonConstant.PATH_DELIMITER + CommonConstant.ZK_SERVICE_SERVER_PATH;
                     String registerZNodePath = ZkPathUtils.buildUriPath(consumerNode, address);
                     // 写入consumer节点
                     zkClient.create().creatingParentsIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(registerZNodePath);
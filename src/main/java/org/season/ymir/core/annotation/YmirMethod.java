@@ -0,0 +1,60 @@
+package org.season.ymir.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法级配置
+ *
+ * @author KevinClair
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface YmirMethod {
+
+    /**
+     * 方法名
+     *
+     * @return
+     */
+    String name();
+
+    /**
+     * 调用超时时间，单位：毫秒，小于等于0时使用服务配置
+     *
+     * @return
+     */
+    long timeout() default 0;
+
+    /**
+     * 压缩方式，none、gzip、snappy，为空时使用服务配置
+     *
+     * @return
+     */
+    String compressor() default "";
+
+    /**
+     * 服务端隔离线程数，大于0时该方法使用独立线程池，否则使用服务配置
+     *
+     * @return
+     */
+    int threads() default 0;
+
+    /**
+     * 服务端隔离线程池队列长度，不大于0时不排队
+     *
+     * @return
+     */
+    int queues() default 0;
+
+    /**
+     * 服务端隔离线程池满载时的拒绝策略，abort、shared
+     *
+     * @return
+     */
+    String rejection() default "abort";
+}
@@ -28,4 +28,32 @@ public @interface YmirReference {
      * @return
      */
     boolean check() default false;
+
+    /**
+     * 调用超时时间，单位：毫秒，小于等于0时使用全局配置
+     *
+     * @return
+     */
+    long timeout() default 0;
+
+    /**
+     * 压缩方式，none、gzip、snappy，为空时使用全局配置；请求与响应均使用该压缩方式
+     *
+     * @return
+     */
+    String compressor() default "";
+
+    /**
+     * 负载均衡方式，random、robin，为空时使用全局配置
+     *
+     * @return
+     */
+    String loadBalance() default "";
+
+    /**
+     * 方法级配置
+     *
+     * @return
+     */
+    YmirMethod[] methods() default {};
 }
@@ -61,4 +61,32 @@ public @interface YmirService {
      * @return
      */
     String protocol() default "";
+
+    /**
+     * 隔离线程数，大于0时服务使用独立线程池，否则使用服务端公共派发线程池
+     *
+     * @return
+     */
+    int threads() default 0;
+
+    /**
+     * 隔离线程池队列长度，不大于0时不排队
+     *
+     * @return
+     */
+    int queues() default 0;
+
+    /**
+     * 隔离线程池满载时的拒绝策略，abort、shared
+     *
+     * @return
+     */
+    String rejection() default "abort";
+
+    /**
+     * 方法级隔离线程池配置
+     *
+     * @return
+     */
+    YmirMethod[] methods() default {};
 }
@@ -2,18 +2,14 @@ package org.season.ymir.core.balance;
 
 import org.season.ymir.common.entity.ServiceBean;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 随机算法
  */
 public class RandomBalance extends AbstractLoadBalance {
 
-    private static final Random random = new Random();
-
     public ServiceBean loadMethod(List<ServiceBean> services, String address) {
         // 计算总权重
         int totalWeight = calculateTotalWeight(services);
@@ -23,20 +19,30 @@ public class RandomBalance extends AbstractLoadBalance {
         if (totalWeight > 0 && !sameWeight) {
             return load(totalWeight, services);
         }
-        return services.get(random.nextInt(services.size()));
+        return services.get(ThreadLocalRandom.current().nextInt(services.size()));
     }
 
     private boolean isAllUpStreamSameWeight(List<ServiceBean> services) {
-        return new HashSet<>(services.stream().map(each -> each.getWeight()).collect(Collectors.toList())).size() == 1;
+        int weight = services.get(0).getWeight();
+        for (int i = 1; i < services.size(); i++) {
+            if (services.get(i).getWeight() != weight) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private int calculateTotalWeight(List<ServiceBean> services) {
-        return services.stream().mapToInt(each -> each.getWeight()).sum();
+        int totalWeight = 0;
+        for (int i = 0; i < services.size(); i++) {
+            totalWeight += services.get(i).getWeight();
+        }
+        return totalWeight;
     }
 
     private ServiceBean load(final int totalWeight, final List<ServiceBean> services) {
         // If the weights are not the same and the weights are greater than 0, then random by the total number of weights
-        int offset = random.nextInt(totalWeight);
+        int offset = ThreadLocalRandom.current().nextInt(totalWeight);
         // Determine which segment the random value falls on
         for (ServiceBean serviceBean : services) {
             offset -= serviceBean.getWeight();
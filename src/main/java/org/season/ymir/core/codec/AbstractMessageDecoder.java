@@ -0,0 +1,57 @@
+package org.season.ymir.core.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.model.YmirNettyMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 消息解码器，解析{@link MessageFrameDecoder}传递的完整帧
+ *
+ * @author KevinClair
+ **/
+public abstract class AbstractMessageDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractMessageDecoder.class);
+
+    @Override
+    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf frame, List<Object> list) throws Exception {
+        // 魔数与版本
+        frame.skipBytes(3);
+        MessageTypeEnum messageType = MessageTypeEnum.valueOf(frame.readByte());
+        byte serialization = frame.readByte();
+        byte compress = frame.readByte();
+        byte status = frame.readByte();
+        long requestId = frame.readLong();
+        // 消息体长度，帧解码器已校验
+        frame.skipBytes(4);
+        if (Objects.isNull(messageType)) {
+            logger.warn("Channel {} receives unknown message type, request id:{}", channelHandlerContext.channel().id(), requestId);
+            return;
+        }
+        YmirNettyMessage message = new YmirNettyMessage(messageType, serialization, requestId, null);
+        message.setStatus(status);
+        message.setCompressor((byte) (compress & 0x0F));
+        message.setResponseCompressor((byte) (compress >> 4 & 0x0F));
+        decodeBody(message, frame);
+        list.add(message);
+        if (logger.isDebugEnabled()){
+            logger.debug("Channel {} decoder message success, request id:{}", channelHandlerContext.channel().id(), requestId);
+        }
+    }
+
+    /**
+     * 解码消息体，由实现类根据消息类型决定是否需要解码
+     *
+     * @param message 已解析报文头的消息
+     * @param body    消息体
+     * @throws Exception
+     */
+    protected abstract void decodeBody(YmirNettyMessage message, ByteBuf body) throws Exception;
+}
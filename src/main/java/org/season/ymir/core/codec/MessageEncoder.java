@@ -4,34 +4,136 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
-import org.season.ymir.common.utils.GsonUtils;
-import org.season.ymir.core.protocol.MessageProtocol;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.constant.CommonConstant;
+import org.season.ymir.common.model.YmirMethodTable;
+import org.season.ymir.common.model.YmirNettyMessage;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.utils.ByteBufUtils;
+import org.season.ymir.common.utils.CompressorUtils;
+import org.season.ymir.common.utils.MessageProtocolUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
+
 /**
- * 消息相应编码器
+ * 消息编码器
+ * <pre>
+ * +-------+---------+------+---------------+----------+--------+-----------+-------------+
+ * | magic | version | type | serialization | compress | status | requestId | body length |
+ * |  2B   |   1B    |  1B  |      1B       |    1B    |   1B   |    8B     |     4B      |
+ * +-------+---------+------+---------------+----------+--------+-----------+-------------+
+ * |                                     body                                             |
+ * +--------------------------------------------------------------------------------------+
+ * </pre>
+ * 请求消息体的头部为路由信息（服务名、方法名），服务端在IO线程只解析路由信息，参数在业务线程反序列化。
+ * 客户端取得服务端方法表后，路由信息为4字节的方法id，status为{@link CommonConstant#ROUTE_BY_METHOD_ID}，消息体不再包含参数类型。
+ * <p>
+ * compress低4位为消息体实际使用的压缩方式，高4位为请求方期望响应使用的压缩方式。只压缩路由信息之后的序列化数据，
+ * 且仅在其长度达到阈值、压缩后变小时压缩。
  *
  * @author KevinClair
  **/
 @ChannelHandler.Sharable
-public class MessageEncoder extends MessageToByteEncoder<Object> {
+public class MessageEncoder extends MessageToByteEncoder<YmirNettyMessage> {
 
     private static final Logger logger = LoggerFactory.getLogger(MessageEncoder.class);
 
-    private MessageProtocol protocol;
+    /**
+     * 压缩阈值，单位：字节
+     */
+    private final int compressThreshold;
 
-    public MessageEncoder(MessageProtocol protocol) {
-        this.protocol = protocol;
+    public MessageEncoder(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
     }
 
     @Override
-    protected void encode(ChannelHandlerContext channelHandlerContext, Object object, ByteBuf byteBuf) throws Exception {
-        byte[] request = protocol.marshalling(object);
-        byteBuf.writeInt(request.length);
-        byteBuf.writeBytes(request);
+    protected void encode(ChannelHandlerContext channelHandlerContext, YmirNettyMessage message, ByteBuf byteBuf) throws Exception {
+        byteBuf.writeShort(CommonConstant.MAGIC_NUMBER);
+        byteBuf.writeByte(CommonConstant.PROTOCOL_VERSION);
+        byteBuf.writeByte(message.getMessageType().getCode());
+        byteBuf.writeByte(message.getSerialization());
+        int compressIndex = byteBuf.writerIndex();
+        byteBuf.writeByte(message.getResponseCompressor() << 4);
+        byteBuf.writeByte(message.getMethodId() > 0 ? CommonConstant.ROUTE_BY_METHOD_ID : message.getStatus());
+        byteBuf.writeLong(message.getRequestId());
+        int lengthIndex = byteBuf.writerIndex();
+        byteBuf.writeInt(0);
+        if (message.getBody() instanceof YmirMethodTable) {
+            writeMethodTable((YmirMethodTable) message.getBody(), byteBuf);
+            byteBuf.setInt(lengthIndex, byteBuf.writerIndex() - lengthIndex - 4);
+        } else if (Objects.nonNull(message.getBody())) {
+            Object body = message.getBody();
+            if (body instanceof YmirRequest) {
+                YmirRequest request = (YmirRequest) body;
+                if (message.getMethodId() > 0) {
+                    byteBuf.writeInt(message.getMethodId());
+                    // 参数类型由方法id确定，不再传输
+                    YmirRequest compact = new YmirRequest();
+                    compact.setHeaders(request.getHeaders());
+                    compact.setParameters(request.getParameters());
+                    body = compact;
+                } else {
+                    ByteBufUtils.writeString(byteBuf, request.getServiceName());
+                    ByteBufUtils.writeString(byteBuf, request.getMethod());
+                }
+            }
+            // 消息体直接序列化至缓冲区，完成后回填长度
+            int payloadIndex = byteBuf.writerIndex();
+            MessageProtocolUtils.getProtocol(message.getSerialization()).marshalling(body, byteBuf);
+            int payloadLength = byteBuf.writerIndex() - payloadIndex;
+            if (message.getCompressor() != CompressorTypeEnum.NONE.getCode() && payloadLength >= compressThreshold
+                    && compress(channelHandlerContext, message.getCompressor(), byteBuf, payloadIndex, payloadLength)) {
+                byteBuf.setByte(compressIndex, message.getResponseCompressor() << 4 | message.getCompressor());
+            }
+            byteBuf.setInt(lengthIndex, byteBuf.writerIndex() - lengthIndex - 4);
+        }
         if (logger.isDebugEnabled()){
-            logger.debug("Channel {} encoder message success, message content:{}", channelHandlerContext.channel().id(), GsonUtils.getInstance().toJson(object));
+            logger.debug("Channel {} encoder message success, request id:{}", channelHandlerContext.channel().id(), message.getRequestId());
+        }
+    }
+
+    /**
+     * 写入方法表，格式：方法数(4) + 每个方法的服务名与方法签名
+     *
+     * @param table   方法表
+     * @param byteBuf 输出缓冲区
+     */
+    private void writeMethodTable(YmirMethodTable table, ByteBuf byteBuf) {
+        byteBuf.writeInt(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            ByteBufUtils.writeString(byteBuf, table.getServiceName(i));
+            ByteBufUtils.writeString(byteBuf, table.getSignature(i));
+        }
+    }
+
+    /**
+     * 原地压缩缓冲区中的序列化数据，压缩后未变小时保留原始数据
+     *
+     * @param ctx           {@link ChannelHandlerContext}
+     * @param compressor    压缩方式
+     * @param byteBuf       输出缓冲区
+     * @param payloadIndex  序列化数据起始位置
+     * @param payloadLength 序列化数据长度
+     * @return 是否压缩
+     * @throws Exception
+     */
+    private boolean compress(ChannelHandlerContext ctx, byte compressor, ByteBuf byteBuf, int payloadIndex, int payloadLength) throws Exception {
+        ByteBuf raw = ctx.alloc().buffer(payloadLength);
+        try {
+            raw.writeBytes(byteBuf, payloadIndex, payloadLength);
+            byteBuf.writerIndex(payloadIndex);
+            CompressorUtils.getCompressor(compressor).compress(raw, byteBuf);
+            if (byteBuf.writerIndex() - payloadIndex < payloadLength) {
+                return true;
+            }
+            byteBuf.writerIndex(payloadIndex);
+            byteBuf.writeBytes(raw, 0, payloadLength);
+            return false;
+        } finally {
+            raw.release();
         }
     }
 }
@@ -0,0 +1,39 @@
+package org.season.ymir.core.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.season.ymir.common.constant.CommonConstant;
+
+/**
+ * 帧解码器，处理半包与粘包，每次向后传递一个完整帧（报文头+消息体）的retained slice，不做内存拷贝；魔数或协议版本不符时抛出{@link CorruptedFrameException}
+ *
+ * @author KevinClair
+ **/
+public class MessageFrameDecoder extends LengthFieldBasedFrameDecoder {
+
+    /**
+     * 消息体长度字段在报文头中的偏移量
+     */
+    private static final int LENGTH_FIELD_OFFSET = CommonConstant.HEADER_LENGTH - 4;
+
+    public MessageFrameDecoder(int maxSize) {
+        super(CommonConstant.HEADER_LENGTH + maxSize, LENGTH_FIELD_OFFSET, 4, 0, 0);
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+        if (in.readableBytes() >= 2 && in.getShort(in.readerIndex()) != CommonConstant.MAGIC_NUMBER) {
+            in.skipBytes(in.readableBytes());
+            throw new CorruptedFrameException("Illegal magic number from channel " + ctx.channel().id());
+        }
+        if (in.readableBytes() >= 3 && in.getByte(in.readerIndex() + 2) != CommonConstant.PROTOCOL_VERSION) {
+            // 版本不一致时报文头布局可能不同，不再继续解析
+            byte version = in.getByte(in.readerIndex() + 2);
+            in.skipBytes(in.readableBytes());
+            throw new CorruptedFrameException("Unsupported protocol version " + version + " from channel " + ctx.channel().id());
+        }
+        return super.decode(ctx, in);
+    }
+}
@@ -1,50 +1,35 @@
 package org.season.ymir.core.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
-import io.netty.handler.codec.TooLongFrameException;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.constant.CommonConstant;
+import org.season.ymir.common.model.YmirNettyMessage;
 import org.season.ymir.common.model.YmirRequest;
-import org.season.ymir.common.utils.GsonUtils;
-import org.season.ymir.core.protocol.MessageProtocol;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.List;
+import org.season.ymir.common.utils.ByteBufUtils;
 
 /**
- * 消息解码器
+ * 请求消息解码器，只解析报文头与路由信息
  *
  * @author KevinClair
  **/
-@ChannelHandler.Sharable
-public class MessageRequestDecoder extends ByteToMessageDecoder {
-
-    private static final Logger logger = LoggerFactory.getLogger(MessageRequestDecoder.class);
-
-    private MessageProtocol protocol;
-
-    private int maxSize;
-
-    public MessageRequestDecoder(MessageProtocol protocol, int maxSize) {
-        this.protocol = protocol;
-        this.maxSize = maxSize;
-    }
+public class MessageRequestDecoder extends AbstractMessageDecoder {
 
     @Override
-    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> list) throws Exception {
-        int bytesSize = byteBuf.readInt();
-        if (bytesSize > maxSize){
-            byteBuf.clear();
-            throw new TooLongFrameException("Message's have been beyond the max size: "+maxSize);
+    protected void decodeBody(YmirNettyMessage message, ByteBuf body) throws Exception {
+        if (message.getMessageType() != MessageTypeEnum.REQUEST && message.getMessageType() != MessageTypeEnum.ONEWAY) {
+            return;
         }
-        byte[] bytes = new byte[bytesSize];
-        byteBuf.readBytes(bytes);
-        YmirRequest ymirRequest = protocol.unmarshallingRequest(bytes);
-        list.add(ymirRequest);
-        if (logger.isDebugEnabled()){
-            logger.debug("Channel {} decoder message success, message content:{}", channelHandlerContext.channel().id(), GsonUtils.getInstance().toJson(ymirRequest));
+        // IO线程只解析路由信息，参数保留在payload中由业务线程反序列化
+        YmirRequest ymirRequest = new YmirRequest();
+        ymirRequest.setRequestId(message.getRequestId());
+        if (message.getStatus() == CommonConstant.ROUTE_BY_METHOD_ID) {
+            // 服务名、方法名与参数类型由业务处理前根据方法表还原
+            message.setMethodId(body.readInt());
+        } else {
+            ymirRequest.setServiceName(ByteBufUtils.readString(body));
+            ymirRequest.setMethod(ByteBufUtils.readString(body));
         }
+        message.setBody(ymirRequest);
+        message.setPayload(body.readRetainedSlice(body.readableBytes()));
     }
 }
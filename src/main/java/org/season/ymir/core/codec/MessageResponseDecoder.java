@@ -1,41 +1,59 @@
 package org.season.ymir.core.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.model.YmirMethodTable;
+import org.season.ymir.common.model.YmirNettyMessage;
 import org.season.ymir.common.model.YmirResponse;
-import org.season.ymir.common.utils.GsonUtils;
-import org.season.ymir.core.protocol.MessageProtocol;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.List;
+import org.season.ymir.common.utils.ByteBufUtils;
+import org.season.ymir.common.utils.CompressorUtils;
+import org.season.ymir.common.utils.MessageProtocolUtils;
 
 /**
- * TODO
+ * 响应消息解码器
  *
  * @author KevinClair
  **/
-@ChannelHandler.Sharable
-public class MessageResponseDecoder extends ByteToMessageDecoder {
-
-    private static final Logger logger = LoggerFactory.getLogger(MessageResponseDecoder.class);
+public class MessageResponseDecoder extends AbstractMessageDecoder {
 
-    private MessageProtocol protocol;
+    /**
+     * 解压后消息体的最大长度，单位：字节
+     */
+    private final int maxSize;
 
-    public MessageResponseDecoder(MessageProtocol protocol) {
-        this.protocol = protocol;
+    public MessageResponseDecoder(int maxSize) {
+        this.maxSize = maxSize;
     }
 
     @Override
-    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> list) throws Exception {
-        byte[] bytes = new byte[byteBuf.readInt()];
-        byteBuf.readBytes(bytes);
-        YmirResponse ymirResponse = protocol.unmarshallingResponse(bytes);
-        list.add(ymirResponse);
-        if (logger.isDebugEnabled()){
-            logger.debug("Channel {} decoder message success, message content:{}", channelHandlerContext.channel().id(), GsonUtils.getInstance().toJson(ymirResponse));
+    protected void decodeBody(YmirNettyMessage message, ByteBuf body) throws Exception {
+        if (message.getMessageType() == MessageTypeEnum.METHOD_TABLE_RESPONSE) {
+            int size = body.readInt();
+            YmirMethodTable table = new YmirMethodTable(Math.min(size, body.readableBytes() / 4));
+            for (int i = 0; i < size; i++) {
+                table.add(ByteBufUtils.readString(body), ByteBufUtils.readString(body));
+            }
+            message.setBody(table);
+            return;
+        }
+        if (message.getMessageType() != MessageTypeEnum.RESPONSE) {
+            return;
+        }
+        YmirResponse ymirResponse;
+        if (message.getCompressor() == CompressorTypeEnum.NONE.getCode()) {
+            ymirResponse = MessageProtocolUtils.getProtocol(message.getSerialization()).unmarshalling(body, YmirResponse.class);
+        } else {
+            ByteBuf raw = CompressorUtils.decompress(message.getCompressor(), body, maxSize);
+            try {
+                ymirResponse = MessageProtocolUtils.getProtocol(message.getSerialization()).unmarshalling(raw, YmirResponse.class);
+            } finally {
+                raw.release();
+            }
         }
+        ymirResponse.setRequestId(message.getRequestId());
+        ymirResponse.setStatusEnum(ServiceStatusEnum.valueOf(message.getStatus()));
+        message.setBody(ymirResponse);
     }
 }
@@ -0,0 +1,31 @@
+package org.season.ymir.core.compress;
+
+import io.netty.buffer.ByteBuf;
+import org.season.ymir.spi.annodation.SPI;
+
+/**
+ * 消息体压缩
+ *
+ * @author KevinClair
+ */
+@SPI("gzip")
+public interface Compressor {
+
+    /**
+     * 压缩，读取in中全部可读字节写入out
+     *
+     * @param in  原始数据
+     * @param out 压缩后的数据
+     * @throws Exception
+     */
+    void compress(ByteBuf in, ByteBuf out) throws Exception;
+
+    /**
+     * 解压，读取in中全部可读字节写入out，解压后长度超过out的最大容量时抛出异常
+     *
+     * @param in  压缩数据
+     * @param out 解压后的数据
+     * @throws Exception
+     */
+    void decompress(ByteBuf in, ByteBuf out) throws Exception;
+}
@@ -0,0 +1,45 @@
+package org.season.ymir.core.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.handler.codec.compression.DecompressionException;
+
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip压缩，JDK实现
+ *
+ * @author KevinClair
+ */
+public class GzipCompressor implements Compressor {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws Exception {
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(new ByteBufOutputStream(out), BUFFER_SIZE)) {
+            in.readBytes(outputStream, in.readableBytes());
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out) throws Exception {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteBufInputStream(in), BUFFER_SIZE)) {
+            while (true) {
+                // 每次最多读取剩余容量，避免临近最大容量时按整块扩容越界
+                int length = Math.min(BUFFER_SIZE, out.maxWritableBytes());
+                if (length == 0) {
+                    if (inputStream.read() < 0) {
+                        return;
+                    }
+                    throw new DecompressionException("Decompressed length exceeds " + out.maxCapacity() + " bytes");
+                }
+                if (out.writeBytes(inputStream, length) <= 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.season.ymir.core.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.compression.Snappy;
+
+/**
+ * snappy压缩，使用Netty的Snappy实现
+ * <p>
+ * Netty的Snappy编码的匹配偏移量以short保存，原始数据按{@link Short#MAX_VALUE}分块压缩，每块前写入压缩后的长度
+ *
+ * @author KevinClair
+ */
+public class SnappyCompressor implements Compressor {
+
+    private static final int MAX_CHUNK_LENGTH = Short.MAX_VALUE;
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) throws Exception {
+        Snappy snappy = new Snappy();
+        while (in.isReadable()) {
+            int length = Math.min(in.readableBytes(), MAX_CHUNK_LENGTH);
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            // 编码需从读索引0开始，与SnappyFrameEncoder一致传入切片
+            snappy.encode(in.readSlice(length), out, length);
+            snappy.reset();
+            out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out) throws Exception {
+        Snappy snappy = new Snappy();
+        while (in.isReadable()) {
+            int length = in.readInt();
+            snappy.decode(in.readSlice(length), out);
+            snappy.reset();
+        }
+    }
+}
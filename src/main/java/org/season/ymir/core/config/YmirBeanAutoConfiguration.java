@@ -12,12 +12,11 @@ import org.season.ymir.core.YmirServiceExportProcessor;
 import org.season.ymir.core.handler.RequestHandler;
 import org.season.ymir.core.property.YmirConfigurationProperty;
 import org.season.ymir.core.property.YmirZookeeperRegisterCenterProperty;
-import org.season.ymir.core.protocol.MessageProtocol;
 import org.season.ymir.server.YmirNettyServer;
+import org.season.ymir.server.bulkhead.BulkheadRegistry;
 import org.season.ymir.server.discovery.YmirServiceDiscovery;
 import org.season.ymir.server.discovery.ZookeeperYmirServiceDiscovery;
 import org.season.ymir.server.handler.NettyServerHandler;
-import org.season.ymir.spi.loader.ExtensionLoader;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -67,23 +66,34 @@ public class YmirBeanAutoConfiguration {
      * RequestHandler注册
      *
      * @param serviceRegister 服务注册器{@link ServiceRegister}
-     * @param clientProperty  配置属性{@link YmirConfigurationProperty}
      * @return {@link RequestHandler}
      */
     @Bean
-    public RequestHandler requestHandler(ServiceRegister serviceRegister, YmirConfigurationProperty clientProperty){
-        return new RequestHandler(ExtensionLoader.getExtensionLoader(MessageProtocol.class).getLoader(clientProperty.getProtocol()), serviceRegister);
+    public RequestHandler requestHandler(ServiceRegister serviceRegister, YmirConfigurationProperty property){
+        return new RequestHandler(serviceRegister, property.getMaxSize());
+    }
+
+    /**
+     * 服务隔离线程池注册表
+     *
+     * @return {@link BulkheadRegistry}
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(){
+        return new BulkheadRegistry();
     }
 
     /**
      * Netty服务端处理器
      *
-     * @param requestHandler 请求处理器{@link RequestHandler}
+     * @param requestHandler   请求处理器{@link RequestHandler}
+     * @param bulkheadRegistry 隔离线程池注册表{@link BulkheadRegistry}
+     * @param property         配置属性{@link YmirConfigurationProperty}
      * @return Netty服务端处理器 {@link NettyServerHandler}
      */
     @Bean
-    public NettyServerHandler nettyServerHandler(RequestHandler requestHandler){
-        return new NettyServerHandler(requestHandler);
+    public NettyServerHandler nettyServerHandler(RequestHandler requestHandler, BulkheadRegistry bulkheadRegistry, YmirConfigurationProperty property){
+        return new NettyServerHandler(requestHandler, bulkheadRegistry, property);
     }
 
     /**
@@ -112,11 +122,12 @@ public class YmirBeanAutoConfiguration {
     /**
      * Netty客户端
      *
+     * @param property 配置属性{@link YmirConfigurationProperty}
      * @return {@link YmirNettyClient}
      */
     @Bean
-    public YmirNettyClient nettyNetClient(){
-        return new YmirNettyClient();
+    public YmirNettyClient nettyNetClient(YmirConfigurationProperty property){
+        return new YmirNettyClient(property);
     }
 
     /**
@@ -129,7 +140,7 @@ public class YmirBeanAutoConfiguration {
      */
     @Bean
     public YmirClientProxyFactory ymirClientProxyFactory(YmirServiceDiscovery serviceDiscovery, YmirNettyClient netClient, YmirConfigurationProperty property){
-        return new YmirClientProxyFactory(serviceDiscovery, netClient, ExtensionLoader.getExtensionLoader(MessageProtocol.class).getLoader(property.getProtocol()));
+        return new YmirClientProxyFactory(serviceDiscovery, netClient, property.getProtocol(), property.getTimeout(), property.getCompressor(), property.getLoadBalance(), property.getBusyRetries());
     }
 
     /**
@@ -140,7 +151,7 @@ public class YmirBeanAutoConfiguration {
      * @return {@link YmirServiceExportProcessor}
      */
     @Bean
-    public YmirServiceExportProcessor defaultServiceExportProcessor(ServiceRegister serviceRegister, YmirNettyServer nettyServer, YmirClientProxyFactory proxyFactory, CuratorFramework zkClient, YmirConfigurationProperty property){
-        return new YmirServiceExportProcessor(serviceRegister, nettyServer, proxyFactory, zkClient, property);
+    public YmirServiceExportProcessor defaultServiceExportProcessor(ServiceRegister serviceRegister, YmirNettyServer nettyServer, YmirClientProxyFactory proxyFactory, CuratorFramework zkClient, BulkheadRegistry bulkheadRegistry, YmirConfigurationProperty property){
+        return new YmirServiceExportProcessor(serviceRegister, nettyServer, proxyFactory, zkClient, bulkheadRegistry, property);
     }
 }
@@ -0,0 +1,129 @@
+package org.season.ymir.core.handler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cglib.reflect.FastClass;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 服务方法调用器，注册服务时为服务类生成cglib {@link FastClass}，调用时按方法下标直接调用，没有反射查找与访问检查
+ *
+ * @author KevinClair
+ **/
+public class MethodInvoker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodInvoker.class);
+
+    private static final Class<?>[] EMPTY_TYPES = new Class<?>[0];
+
+    private final Method method;
+
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * 服务类的FastClass，无法生成时为null，退回反射调用
+     */
+    private final FastClass fastClass;
+
+    /**
+     * 方法在FastClass中的下标
+     */
+    private final int index;
+
+    public MethodInvoker(Method method, FastClass fastClass) {
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.fastClass = fastClass;
+        this.index = Objects.isNull(fastClass) ? -1 : fastClass.getMethod(method).getIndex();
+        if (Objects.isNull(fastClass)) {
+            // 非public的实现类上的public方法同样需要可访问
+            method.setAccessible(true);
+        }
+    }
+
+    /**
+     * 调用方法，方法抛出的异常原样抛出
+     *
+     * @param target 服务对象
+     * @param args   参数
+     * @return 返回值，void方法返回null
+     * @throws Throwable 方法抛出的异常
+     */
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        try {
+            return Objects.isNull(fastClass) ? method.invoke(target, args) : fastClass.invoke(index, target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 参数类型是否一致
+     *
+     * @param types 请求的参数类型，为空表示无参
+     * @return 是否一致
+     */
+    public boolean matches(Class<?>[] types) {
+        return Arrays.equals(parameterTypes, types == null ? EMPTY_TYPES : types);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 参数类型，返回内部数组，调用方不能修改
+     *
+     * @return 参数类型
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * 解析类的所有public方法，不包含{@link Object}声明的方法
+     *
+     * @param clazz 服务实现类
+     * @return key: 方法名，value: 同名方法的调用器
+     */
+    public static Map<String, MethodInvoker[]> resolve(Class<?> clazz) {
+        FastClass fastClass = createFastClass(clazz);
+        Map<String, List<MethodInvoker>> invokers = new HashMap<>();
+        for (Method method : clazz.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            invokers.computeIfAbsent(method.getName(), key -> new ArrayList<>()).add(new MethodInvoker(method, fastClass));
+        }
+        Map<String, MethodInvoker[]> table = new HashMap<>(invokers.size() * 2);
+        invokers.forEach((name, list) -> table.put(name, list.toArray(new MethodInvoker[0])));
+        return table;
+    }
+
+    /**
+     * 生成FastClass，生成的类与服务类位于同一包下，JDK 16以上需指定contextClass才能定义
+     *
+     * @param clazz 服务实现类
+     * @return {@link FastClass}，无法生成时返回null
+     */
+    private static FastClass createFastClass(Class<?> clazz) {
+        try {
+            FastClass.Generator generator = new FastClass.Generator();
+            generator.setType(clazz);
+            generator.setContextClass(clazz);
+            generator.setClassLoader(clazz.getClassLoader());
+            return generator.create();
+        } catch (RuntimeException | LinkageError e) {
+            logger.warn("Create FastClass for {} failed, invoke by reflection, cause:{}", clazz.getName(), e.getMessage());
+            return null;
+        }
+    }
+}
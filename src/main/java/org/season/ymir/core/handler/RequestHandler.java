@@ -1,14 +1,21 @@
 package org.season.ymir.core.handler;
 
+import io.netty.buffer.ByteBuf;
+import org.season.ymir.common.base.CompressorTypeEnum;
 import org.season.ymir.common.base.ServiceStatusEnum;
 import org.season.ymir.common.entity.ServiceBeanCache;
-import org.season.ymir.common.exception.RpcException;
+import org.season.ymir.common.entity.ServiceMethod;
+import org.season.ymir.common.model.YmirMethodTable;
+import org.season.ymir.common.model.YmirNettyMessage;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
 import org.season.ymir.common.register.ServiceRegister;
-import org.season.ymir.core.protocol.MessageProtocol;
+import org.season.ymir.common.utils.CompressorUtils;
+import org.season.ymir.common.utils.MessageProtocolUtils;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -18,51 +25,153 @@ import java.util.Objects;
  */
 public class RequestHandler {
 
-    private MessageProtocol protocol;
-
     private ServiceRegister serviceRegister;
 
-    public RequestHandler(MessageProtocol protocol, ServiceRegister serviceRegister) {
-        this.protocol = protocol;
+    /**
+     * 解压后消息体的最大长度，单位：字节
+     */
+    private int maxSize;
+
+    public RequestHandler(ServiceRegister serviceRegister, int maxSize) {
         this.serviceRegister = serviceRegister;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 请求处理，在业务线程中反序列化IO线程保留的消息体
+     *
+     * @param message 只解析了路由信息的请求消息
+     * @return 响应
+     * @throws Exception
+     */
+    public YmirResponse handleRequest(YmirNettyMessage message) throws Exception {
+        YmirRequest req = (YmirRequest) message.getBody();
+        ByteBuf payload = message.getPayload();
+        if (Objects.nonNull(payload)) {
+            message.setPayload(null);
+            try {
+                if (message.getCompressor() != CompressorTypeEnum.NONE.getCode()) {
+                    ByteBuf compressed = payload;
+                    // 压缩数据由内层释放，解压失败时外层不再重复释放
+                    payload = null;
+                    try {
+                        payload = CompressorUtils.decompress(message.getCompressor(), compressed, maxSize);
+                    } finally {
+                        compressed.release();
+                    }
+                }
+                YmirRequest decoded = MessageProtocolUtils.getProtocol(message.getSerialization()).unmarshalling(payload, YmirRequest.class);
+                decoded.setRequestId(req.getRequestId());
+                decoded.setServiceName(req.getServiceName());
+                decoded.setMethod(req.getMethod());
+                if (Objects.isNull(decoded.getParameterTypes())) {
+                    // 按方法id路由的请求不携带参数类型
+                    decoded.setParameterTypes(req.getParameterTypes());
+                }
+                req = decoded;
+                message.setBody(decoded);
+            } catch (Exception e) {
+                YmirResponse response = new YmirResponse(ServiceStatusEnum.ERROR);
+                response.setException(e);
+                response.setRequestId(req.getRequestId());
+                return response;
+            } finally {
+                if (Objects.nonNull(payload)) {
+                    payload.release();
+                }
+            }
+        }
+        return handleRequest(req, message.getServiceMethod());
+    }
+
+    /**
+     * 按方法id还原请求的服务名、方法名与参数类型，解析出的服务方法保存在消息中供业务线程直接调用
+     *
+     * @param message 请求消息
+     * @return 方法id不存在时返回false
+     */
+    public boolean resolveMethod(YmirNettyMessage message) {
+        if (message.getMethodId() <= 0) {
+            return true;
+        }
+        ServiceMethod method = serviceRegister.getMethod(message.getMethodId());
+        if (Objects.isNull(method)) {
+            return false;
+        }
+        YmirRequest req = (YmirRequest) message.getBody();
+        req.setServiceName(method.getServiceName());
+        req.setMethod(method.getInvoker().getMethod().getName());
+        req.setParameterTypes(method.getInvoker().getParameterTypes());
+        message.setServiceMethod(method);
+        return true;
+    }
+
+    /**
+     * 当前注册的方法表，客户端握手时获取
+     *
+     * @return {@link YmirMethodTable}
+     */
+    public YmirMethodTable getMethodTable() {
+        List<ServiceMethod> methods = serviceRegister.getMethods();
+        YmirMethodTable table = new YmirMethodTable(methods.size());
+        for (ServiceMethod method : methods) {
+            table.add(method.getServiceName(), method.getSignature());
+        }
+        return table;
     }
 
     /**
      * 请求处理
      *
-     * @param data
-     * @return
+     * @param req 请求
+     * @return 响应
      * @throws Exception
      */
-    public byte[] handleRequest(byte[] data) throws Exception {
-        // 1.解组消息
-        YmirRequest req = this.protocol.unmarshallingRequest(data);
+    public YmirResponse handleRequest(YmirRequest req) throws Exception {
+        return handleRequest(req, null);
+    }
 
-        // 2.查找服务对应
-        ServiceBeanCache bean = serviceRegister.getBean(req.getServiceName());
-        if (Objects.isNull(bean)){
-            throw new RpcException("No provider for service "+ req.getServiceName());
+    /**
+     * 请求处理
+     *
+     * @param req    请求
+     * @param method 按方法id解析出的服务方法，为空时按服务名、方法名与参数类型查找
+     * @return 响应
+     * @throws Exception
+     */
+    private YmirResponse handleRequest(YmirRequest req, ServiceMethod method) throws Exception {
+        ServiceBeanCache bean;
+        MethodInvoker invoker;
+        if (Objects.nonNull(method)) {
+            bean = method.getService();
+            invoker = method.getInvoker();
+        } else {
+            // 1.查找服务对应
+            bean = serviceRegister.getBean(req.getServiceName());
+            // 2.查找注册时解析的方法调用器
+            invoker = Objects.isNull(bean) ? null : bean.getInvoker(req.getMethod(), req.getParameterTypes());
         }
 
         YmirResponse response = null;
 
         if (Objects.isNull(bean)) {
             response = new YmirResponse(ServiceStatusEnum.NOT_FOUND);
+        } else if (Objects.isNull(invoker)) {
+            response = new YmirResponse(ServiceStatusEnum.ERROR);
+            response.setException(new NoSuchMethodException(bean.getClazz().getName() + "." + req.getMethod() + Arrays.toString(req.getParameterTypes())));
         } else {
             try {
-                // 3.反射调用对应的方法过程
-                Method method = bean.getClazz().getMethod(req.getMethod(), req.getParameterTypes());
-                Object returnValue = method.invoke(bean.getBean(), req.getParameters());
+                Object returnValue = invoker.invoke(bean.getBean(), req.getParameters());
                 response = new YmirResponse(ServiceStatusEnum.SUCCESS);
                 response.setReturnValue(returnValue);
-            } catch (Exception e) {
+            } catch (Throwable e) {
+                // 业务方法抛出的异常
                 response = new YmirResponse(ServiceStatusEnum.ERROR);
-                response.setException(e);
+                response.setException(e instanceof Exception ? (Exception) e : new InvocationTargetException(e));
             }
         }
-        // 编组响应消息
         response.setRequestId(req.getRequestId());
-        return this.protocol.marshallingResponse(response);
+        return response;
     }
 
 }
@@ -0,0 +1,46 @@
+package org.season.ymir.core.limit;
+
+/**
+ * 抽象自适应并发上限，计算结果限制在[minLimit, maxLimit]之间
+ *
+ * @author KevinClair
+ **/
+public abstract class AbstractAdaptiveLimit implements AdaptiveLimit {
+
+    protected int minLimit;
+
+    protected int maxLimit;
+
+    /**
+     * 当前并发上限估计值
+     */
+    protected double estimatedLimit;
+
+    @Override
+    public void init(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 计算新的并发上限估计值
+     *
+     * @param rtt      平均延迟，单位：纳秒
+     * @param inflight 最大并发数
+     * @param dropped  是否有请求被丢弃
+     * @return 新的估计值
+     */
+    protected abstract double estimate(long rtt, int inflight, boolean dropped);
+
+    @Override
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    @Override
+    public int update(long rtt, int inflight, boolean dropped) {
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, estimate(rtt, inflight, dropped)));
+        return (int) estimatedLimit;
+    }
+}
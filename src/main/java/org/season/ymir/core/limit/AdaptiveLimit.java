@@ -0,0 +1,38 @@
+package org.season.ymir.core.limit;
+
+import org.season.ymir.spi.annodation.SPI;
+
+/**
+ * 自适应并发上限算法，根据观测到的延迟调整并发上限，实例有状态，由{@link ConcurrencyLimiter}串行调用
+ *
+ * @author KevinClair
+ **/
+@SPI("gradient")
+public interface AdaptiveLimit {
+
+    /**
+     * 初始化
+     *
+     * @param initialLimit 初始并发上限
+     * @param minLimit     最小并发上限
+     * @param maxLimit     最大并发上限
+     */
+    void init(int initialLimit, int minLimit, int maxLimit);
+
+    /**
+     * 当前并发上限
+     *
+     * @return 并发上限
+     */
+    int getLimit();
+
+    /**
+     * 根据一个采样窗口的结果计算新的并发上限
+     *
+     * @param rtt      窗口内的平均延迟，单位：纳秒
+     * @param inflight 窗口内的最大并发数
+     * @param dropped  窗口内是否有请求因过载被丢弃
+     * @return 新的并发上限
+     */
+    int update(long rtt, int inflight, boolean dropped);
+}
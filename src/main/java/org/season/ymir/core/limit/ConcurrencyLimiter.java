@@ -0,0 +1,165 @@
+package org.season.ymir.core.limit;
+
+import org.season.ymir.spi.loader.ExtensionLoader;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * 并发限制器，并发数达到上限时拒绝请求；请求完成时记录延迟，按采样窗口交给{@link AdaptiveLimit}调整上限
+ *
+ * @author KevinClair
+ **/
+public class ConcurrencyLimiter {
+
+    /**
+     * 采样窗口最短时间
+     */
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * 采样窗口最少样本数
+     */
+    private static final int WINDOW_SAMPLES = 10;
+
+    /**
+     * 保留的上限变化记录数
+     */
+    private static final int HISTORY_SIZE = 64;
+
+    private final AdaptiveLimit algorithm;
+
+    private volatile int limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 上限变化记录，key: 时间戳，value: 变化后的上限
+     */
+    private final Deque<long[]> history = new ArrayDeque<>(HISTORY_SIZE);
+
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    private long windowStart = System.nanoTime();
+
+    private long windowRttSum;
+
+    private int windowSamples;
+
+    private int windowInflight;
+
+    private boolean windowDropped;
+
+    /**
+     * @param algorithm    算法名称，gradient、vegas
+     * @param initialLimit 初始并发上限
+     * @param minLimit     最小并发上限
+     * @param maxLimit     最大并发上限
+     */
+    public ConcurrencyLimiter(String algorithm, int initialLimit, int minLimit, int maxLimit) {
+        this.algorithm = ExtensionLoader.getExtensionLoader(AdaptiveLimit.class).newExtension(algorithm);
+        this.algorithm.init(initialLimit, minLimit, maxLimit);
+        this.limit = this.algorithm.getLimit();
+        this.history.add(new long[]{System.currentTimeMillis(), limit});
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @return 达到上限时返回false
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inflight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放名额并记录延迟
+     *
+     * @param startNanos 占用名额时的{@link System#nanoTime()}
+     * @param dropped    请求是否因过载被丢弃
+     */
+    public void release(long startNanos, boolean dropped) {
+        long now = System.nanoTime();
+        int current = inflight.getAndDecrement();
+        int newLimit;
+        synchronized (this) {
+            windowRttSum += now - startNanos;
+            windowSamples++;
+            windowInflight = Math.max(windowInflight, current);
+            windowDropped |= dropped;
+            if (now - windowStart < WINDOW_NANOS || windowSamples < WINDOW_SAMPLES) {
+                return;
+            }
+            newLimit = algorithm.update(windowRttSum / windowSamples, windowInflight, windowDropped);
+            windowStart = now;
+            windowRttSum = 0;
+            windowSamples = 0;
+            windowInflight = 0;
+            windowDropped = false;
+            if (newLimit == limit) {
+                return;
+            }
+            limit = newLimit;
+            if (history.size() >= HISTORY_SIZE) {
+                history.removeFirst();
+            }
+            history.addLast(new long[]{System.currentTimeMillis(), newLimit});
+        }
+        for (IntConsumer listener : listeners) {
+            listener.accept(newLimit);
+        }
+    }
+
+    /**
+     * 监听上限变化
+     *
+     * @param listener 参数为变化后的上限
+     */
+    public void addListener(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 最近的上限变化
+     *
+     * @return key: 时间戳，value: 变化后的上限
+     */
+    public synchronized Map<Long, Integer> getLimitHistory() {
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        for (long[] change : history) {
+            changes.put(change[0], (int) change[1]);
+        }
+        return changes;
+    }
+}
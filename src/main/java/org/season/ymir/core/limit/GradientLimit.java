@@ -0,0 +1,53 @@
+package org.season.ymir.core.limit;
+
+/**
+ * 梯度算法，比较短期延迟与长期延迟，延迟上升时按比例收缩并发上限，平稳时以sqrt(limit)的余量增长
+ * <p>
+ * newLimit = limit * gradient + sqrt(limit)，gradient = clamp(1.5 * longRtt / shortRtt, 0.5, 1)，按0.2平滑
+ *
+ * @author KevinClair
+ **/
+public class GradientLimit extends AbstractAdaptiveLimit {
+
+    /**
+     * 允许短期延迟超出长期延迟的比例
+     */
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * 长期延迟的指数平滑窗口，单位：采样窗口数
+     */
+    private static final int LONG_WINDOW = 100;
+
+    /**
+     * 长期延迟，单位：纳秒
+     */
+    private double longRtt = -1;
+
+    @Override
+    protected double estimate(long rtt, int inflight, boolean dropped) {
+        double shortRtt = Math.max(1, rtt);
+        if (longRtt < 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+        }
+        // 长期延迟明显偏高说明负载已下降，加快回落
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (dropped) {
+            // 有请求因过载被丢弃，按最小梯度收缩
+            return estimatedLimit * (1 - SMOOTHING * 0.5);
+        }
+        // 并发数远低于上限时延迟不反映容量，保持不变
+        if (inflight < estimatedLimit / 2) {
+            return estimatedLimit;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        return estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    }
+}
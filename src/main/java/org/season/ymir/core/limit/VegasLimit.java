@@ -0,0 +1,55 @@
+package org.season.ymir.core.limit;
+
+/**
+ * Vegas算法，以最小延迟作为无负载延迟估算排队长度，排队少时增长，排队多或有丢弃时收缩
+ * <p>
+ * queue = limit * (1 - minRtt / rtt)，阈值alpha = 3 * log10(limit)，beta = 6 * log10(limit)
+ *
+ * @author KevinClair
+ **/
+public class VegasLimit extends AbstractAdaptiveLimit {
+
+    /**
+     * 每隔多少个采样窗口重新探测无负载延迟
+     */
+    private static final int PROBE_INTERVAL = 1000;
+
+    /**
+     * 无负载延迟，单位：纳秒
+     */
+    private long minRtt = -1;
+
+    private int windows;
+
+    @Override
+    protected double estimate(long rtt, int inflight, boolean dropped) {
+        rtt = Math.max(1, rtt);
+        if (++windows >= PROBE_INTERVAL) {
+            // 服务本身变慢时最小延迟不会自动上升，定期重置
+            windows = 0;
+            minRtt = -1;
+        }
+        if (minRtt < 0 || rtt < minRtt) {
+            minRtt = rtt;
+            return estimatedLimit;
+        }
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        if (dropped) {
+            return estimatedLimit - log;
+        }
+        if (inflight * 2 < estimatedLimit) {
+            return estimatedLimit;
+        }
+        double queue = estimatedLimit * (1 - (double) minRtt / rtt);
+        if (queue <= log) {
+            return estimatedLimit + 6 * log;
+        }
+        if (queue < 3 * log) {
+            return estimatedLimit + log;
+        }
+        if (queue > 6 * log) {
+            return estimatedLimit - log;
+        }
+        return estimatedLimit;
+    }
+}
@@ -21,15 +21,185 @@ public class YmirConfigurationProperty {
     private String protocol = "protoBuf";
 
     /**
-     * 消息体的最大
+     * 消息体的最大长度，单位：字节
      */
-    private int maxSize = 1024;
+    private int maxSize = 8 * 1024 * 1024;
 
     /**
      * 权重
      */
     private Integer weight = 1;
 
+    /**
+     * Linux下native epoll可用时是否使用epoll传输，不可用时退回NIO
+     */
+    private boolean epoll = true;
+
+    /**
+     * 服务端acceptor数量，大于1且使用epoll时通过SO_REUSEPORT绑定多个acceptor
+     */
+    private int acceptors = 1;
+
+    /**
+     * 是否开启flush合并，开启后客户端与服务端的flush会在一次事件循环内或达到flushConsolidationLimit条时合并为一次系统调用
+     */
+    private boolean flushConsolidation = false;
+
+    /**
+     * flush合并的最大消息条数，达到该条数立即flush，与事件循环结束共同构成延迟上限
+     */
+    private int flushConsolidationLimit = 256;
+
+    /**
+     * 调用超时时间，单位：毫秒，可被{@link org.season.ymir.core.annotation.YmirReference}的服务与方法配置覆盖
+     */
+    private long timeout = 8000;
+
+    /**
+     * 负载均衡方式，random、robin，可被{@link org.season.ymir.core.annotation.YmirReference}的服务配置覆盖
+     */
+    private String loadBalance = "random";
+
+    /**
+     * 单个连接最多等待响应的请求数，向上取整为2的幂
+     */
+    private int maxPendingRequests = 4096;
+
+    /**
+     * 每个服务地址保持的连接数
+     */
+    private int connections = 1;
+
+    /**
+     * 每个服务地址的最大连接数，大于connections时按需扩容
+     */
+    private int maxConnections = 1;
+
+    /**
+     * 所选连接的等待请求数达到该值时扩容一个连接
+     */
+    private int connectionPendingThreshold = 256;
+
+    /**
+     * 连接选择方式，leastPending: 最少等待请求数，roundRobin: 轮询
+     */
+    private String channelSelector = "leastPending";
+
+    /**
+     * 建立连接的超时时间，单位：毫秒
+     */
+    private int connectTimeout = 3000;
+
+    /**
+     * 启动时是否预先连接引用服务的所有提供者
+     */
+    private boolean warmUp = true;
+
+    /**
+     * 重连初始延迟，单位：毫秒，之后每次失败翻倍并加入随机抖动
+     */
+    private long reconnectInitialDelay = 200;
+
+    /**
+     * 重连最大延迟，单位：毫秒
+     */
+    private long reconnectMaxDelay = 20000;
+
+    /**
+     * 压缩方式，none、gzip、snappy，可被{@link org.season.ymir.core.annotation.YmirReference}的服务与方法配置覆盖
+     */
+    private String compressor = "none";
+
+    /**
+     * 压缩阈值，序列化后的消息体达到该长度才压缩，单位：字节
+     */
+    private int compressThreshold = 1024;
+
+    /**
+     * 写缓冲区低水位，待写出的字节数降到该值以下时通道恢复可写，单位：字节
+     */
+    private int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * 写缓冲区高水位，待写出的字节数超过该值时通道不可写，单位：字节
+     */
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * 客户端通道不可写时请求是否快速失败，否则等待通道恢复可写后发送，等待时间计入请求超时
+     */
+    private boolean failFastWhenUnwritable = false;
+
+    /**
+     * 服务端通道持续不可写超过该时间视为慢消费者并关闭连接，单位：毫秒
+     */
+    private long slowConsumerTimeout = 30000;
+
+    /**
+     * 服务端请求派发策略，direct、fixed、forkjoin、virtual
+     */
+    private String dispatcher = "fixed";
+
+    /**
+     * 派发线程数，forkjoin为并行度
+     */
+    private int dispatcherThreads = 200;
+
+    /**
+     * 派发队列长度，仅fixed有效，不大于0时不排队
+     */
+    private int dispatcherQueueSize = 1000;
+
+    /**
+     * 服务端等待执行的请求数达到该值时直接返回{@link org.season.ymir.common.base.ServiceStatusEnum#SERVER_BUSY}，不大于0时不限制
+     */
+    private int shedQueueDepth = 0;
+
+    /**
+     * 服务端请求排队超过该时间时不再执行，返回{@link org.season.ymir.common.base.ServiceStatusEnum#SERVER_BUSY}，单位：毫秒，不大于0时不限制
+     */
+    private long shedQueueWait = 0;
+
+    /**
+     * 客户端收到{@link org.season.ymir.common.base.ServiceStatusEnum#SERVER_BUSY}时换其他提供者重试的次数
+     */
+    private int busyRetries = 2;
+
+    /**
+     * 服务端自适应并发限制算法，gradient、vegas，为空时不限制
+     */
+    private String limiter = "";
+
+    /**
+     * 客户端对每个提供者的自适应并发限制算法，gradient、vegas，为空时不限制
+     */
+    private String clientLimiter = "";
+
+    /**
+     * 自适应并发限制的初始上限，服务端与客户端共用
+     */
+    private int limiterInitialLimit = 100;
+
+    /**
+     * 自适应并发限制的最小上限，服务端与客户端共用
+     */
+    private int limiterMinLimit = 10;
+
+    /**
+     * 自适应并发限制的最大上限，服务端与客户端共用
+     */
+    private int limiterMaxLimit = 1000;
+
+    /**
+     * 客户端是否在连接建立后获取服务端的方法表，获取后请求只携带方法id，不再传输服务名、方法名与参数类型
+     */
+    private boolean methodIdRouting = true;
+
+    /**
+     * 客户端心跳间隔，每个连接无论是否空闲都按该间隔发送心跳并采样往返时间，单位：毫秒，应小于180秒的读超时
+     */
+    private long heartbeatInterval = 30000;
+
     public Integer getPort() {
         return port;
     }
@@ -53,4 +223,276 @@ public class YmirConfigurationProperty {
     public void setMaxSize(int maxSize) {
         this.maxSize = maxSize;
     }
+
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    public void setEpoll(boolean epoll) {
+        this.epoll = epoll;
+    }
+
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    public void setAcceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    public boolean isFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public void setFlushConsolidation(boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+    }
+
+    public int getFlushConsolidationLimit() {
+        return flushConsolidationLimit;
+    }
+
+    public void setFlushConsolidationLimit(int flushConsolidationLimit) {
+        this.flushConsolidationLimit = flushConsolidationLimit;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public String getLoadBalance() {
+        return loadBalance;
+    }
+
+    public void setLoadBalance(String loadBalance) {
+        this.loadBalance = loadBalance;
+    }
+
+    public int getMaxPendingRequests() {
+        return maxPendingRequests;
+    }
+
+    public void setMaxPendingRequests(int maxPendingRequests) {
+        this.maxPendingRequests = maxPendingRequests;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getConnectionPendingThreshold() {
+        return connectionPendingThreshold;
+    }
+
+    public void setConnectionPendingThreshold(int connectionPendingThreshold) {
+        this.connectionPendingThreshold = connectionPendingThreshold;
+    }
+
+    public String getChannelSelector() {
+        return channelSelector;
+    }
+
+    public void setChannelSelector(String channelSelector) {
+        this.channelSelector = channelSelector;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public long getReconnectInitialDelay() {
+        return reconnectInitialDelay;
+    }
+
+    public void setReconnectInitialDelay(long reconnectInitialDelay) {
+        this.reconnectInitialDelay = reconnectInitialDelay;
+    }
+
+    public long getReconnectMaxDelay() {
+        return reconnectMaxDelay;
+    }
+
+    public void setReconnectMaxDelay(long reconnectMaxDelay) {
+        this.reconnectMaxDelay = reconnectMaxDelay;
+    }
+
+    public String getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(String compressor) {
+        this.compressor = compressor;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public boolean isFailFastWhenUnwritable() {
+        return failFastWhenUnwritable;
+    }
+
+    public void setFailFastWhenUnwritable(boolean failFastWhenUnwritable) {
+        this.failFastWhenUnwritable = failFastWhenUnwritable;
+    }
+
+    public long getSlowConsumerTimeout() {
+        return slowConsumerTimeout;
+    }
+
+    public void setSlowConsumerTimeout(long slowConsumerTimeout) {
+        this.slowConsumerTimeout = slowConsumerTimeout;
+    }
+
+    public String getDispatcher() {
+        return dispatcher;
+    }
+
+    public void setDispatcher(String dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public int getDispatcherThreads() {
+        return dispatcherThreads;
+    }
+
+    public void setDispatcherThreads(int dispatcherThreads) {
+        this.dispatcherThreads = dispatcherThreads;
+    }
+
+    public int getDispatcherQueueSize() {
+        return dispatcherQueueSize;
+    }
+
+    public void setDispatcherQueueSize(int dispatcherQueueSize) {
+        this.dispatcherQueueSize = dispatcherQueueSize;
+    }
+
+    public int getShedQueueDepth() {
+        return shedQueueDepth;
+    }
+
+    public void setShedQueueDepth(int shedQueueDepth) {
+        this.shedQueueDepth = shedQueueDepth;
+    }
+
+    public long getShedQueueWait() {
+        return shedQueueWait;
+    }
+
+    public void setShedQueueWait(long shedQueueWait) {
+        this.shedQueueWait = shedQueueWait;
+    }
+
+    public int getBusyRetries() {
+        return busyRetries;
+    }
+
+    public void setBusyRetries(int busyRetries) {
+        this.busyRetries = busyRetries;
+    }
+
+    public String getLimiter() {
+        return limiter;
+    }
+
+    public void setLimiter(String limiter) {
+        this.limiter = limiter;
+    }
+
+    public String getClientLimiter() {
+        return clientLimiter;
+    }
+
+    public void setClientLimiter(String clientLimiter) {
+        this.clientLimiter = clientLimiter;
+    }
+
+    public int getLimiterInitialLimit() {
+        return limiterInitialLimit;
+    }
+
+    public void setLimiterInitialLimit(int limiterInitialLimit) {
+        this.limiterInitialLimit = limiterInitialLimit;
+    }
+
+    public int getLimiterMinLimit() {
+        return limiterMinLimit;
+    }
+
+    public void setLimiterMinLimit(int limiterMinLimit) {
+        this.limiterMinLimit = limiterMinLimit;
+    }
+
+    public int getLimiterMaxLimit() {
+        return limiterMaxLimit;
+    }
+
+    public void setLimiterMaxLimit(int limiterMaxLimit) {
+        this.limiterMaxLimit = limiterMaxLimit;
+    }
+
+    public boolean isMethodIdRouting() {
+        return methodIdRouting;
+    }
+
+    public void setMethodIdRouting(boolean methodIdRouting) {
+        this.methodIdRouting = methodIdRouting;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
 }
@@ -1,9 +1,15 @@
 package org.season.ymir.core.protocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
 import org.season.ymir.common.utils.GsonUtils;
 
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -28,4 +34,16 @@ public class GsonMessageProtocol implements MessageProtocol {
     public YmirResponse unmarshallingResponse(byte[] data) throws Exception {
         return GsonUtils.getInstance().fromJson(new String(data, Charset.forName("utf-8")), YmirResponse.class);
     }
+
+    @Override
+    public void marshalling(Object object, ByteBuf out) throws Exception {
+        Writer writer = new OutputStreamWriter(new ByteBufOutputStream(out), StandardCharsets.UTF_8);
+        GsonUtils.getInstance().toJson(object, writer);
+        writer.flush();
+    }
+
+    @Override
+    public <T> T unmarshalling(ByteBuf in, Class<T> clazz) throws Exception {
+        return GsonUtils.getInstance().fromJson(new InputStreamReader(new ByteBufInputStream(in), StandardCharsets.UTF_8), clazz);
+    }
 }
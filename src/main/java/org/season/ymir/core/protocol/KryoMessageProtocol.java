@@ -3,6 +3,10 @@ package org.season.ymir.core.protocol;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.JavaSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
@@ -24,6 +28,8 @@ public class KryoMessageProtocol implements MessageProtocol {
             kryo.setReferences(false);
             kryo.register(YmirRequest.class);
             kryo.register(YmirResponse.class);
+            // 异常的cause默认指向自身，关闭引用时使用Java序列化
+            kryo.addDefaultSerializer(Throwable.class, JavaSerializer.class);
             Kryo.DefaultInstantiatorStrategy strategy = (Kryo.DefaultInstantiatorStrategy) kryo.getInstantiatorStrategy();
             strategy.setFallbackInstantiatorStrategy(new StdInstantiatorStrategy());
             return kryo;
@@ -69,4 +75,19 @@ public class KryoMessageProtocol implements MessageProtocol {
         input.close();
         return response;
     }
+
+    @Override
+    public void marshalling(Object object, ByteBuf out) throws Exception {
+        Output output = new Output(new ByteBufOutputStream(out));
+        getInstance().writeClassAndObject(output, object);
+        output.flush();
+    }
+
+    @Override
+    public <T> T unmarshalling(ByteBuf in, Class<T> clazz) throws Exception {
+        Input input = in.hasArray() ? new Input(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes()) : new Input(new ByteBufInputStream(in));
+        T t = clazz.cast(getInstance().readClassAndObject(input));
+        in.skipBytes(in.readableBytes());
+        return t;
+    }
 }
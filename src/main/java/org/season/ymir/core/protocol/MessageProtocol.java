@@ -1,5 +1,6 @@
 package org.season.ymir.core.protocol;
 
+import io.netty.buffer.ByteBuf;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
 import org.season.ymir.spi.annodation.SPI;
@@ -34,4 +35,24 @@ public interface MessageProtocol {
      * @throws Exception
      */
     YmirResponse unmarshallingResponse(byte[] data) throws Exception;
+
+    /**
+     * 编组消息，直接写入{@link ByteBuf}
+     *
+     * @param object 消息
+     * @param out    写入的缓冲区
+     * @throws Exception
+     */
+    void marshalling(Object object, ByteBuf out) throws Exception;
+
+    /**
+     * 解组消息，直接从{@link ByteBuf}中读取
+     *
+     * @param in    消息体缓冲区，读取全部可读字节
+     * @param clazz 消息类型
+     * @param <T>   泛型
+     * @return 消息
+     * @throws Exception
+     */
+    <T> T unmarshalling(ByteBuf in, Class<T> clazz) throws Exception;
 }
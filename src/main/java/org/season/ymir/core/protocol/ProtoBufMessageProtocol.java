@@ -1,6 +1,9 @@
 package org.season.ymir.core.protocol;
 
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.season.ymir.common.model.YmirRequest;
 import org.season.ymir.common.model.YmirResponse;
 import org.season.ymir.common.utils.SerializingUtil;
@@ -26,4 +29,20 @@ public class ProtoBufMessageProtocol implements MessageProtocol{
     public YmirResponse unmarshallingResponse(byte[] data) throws Exception {
         return SerializingUtil.deserialize(data,YmirResponse.class);
     }
+
+    @Override
+    public void marshalling(Object object, ByteBuf out) throws Exception {
+        SerializingUtil.serialize(object, new ByteBufOutputStream(out));
+    }
+
+    @Override
+    public <T> T unmarshalling(ByteBuf in, Class<T> clazz) throws Exception {
+        if (in.hasArray()) {
+            // 堆内存直接读取底层数组
+            T t = SerializingUtil.deserialize(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes(), clazz);
+            in.skipBytes(in.readableBytes());
+            return t;
+        }
+        return SerializingUtil.deserialize(new ByteBufInputStream(in), clazz);
+    }
 }
@@ -1,22 +1,24 @@
 package org.season.ymir.core.zookeeper;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
 import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
 import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
 import org.season.ymir.common.constant.CommonConstant;
 import org.season.ymir.common.entity.ServiceBean;
 import org.season.ymir.common.utils.GsonUtils;
-import org.season.ymir.server.discovery.YmirServiceDiscovery;
+import org.season.ymir.client.proxy.YmirClientProxyFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 /**
- * zk节点监听
+ * zk节点监听，提供者节点变化时根据节点缓存的当前数据重建提供者列表，整体替换服务目录的快照，并关闭已下线地址的连接
  *
  * @author KevinClair
  **/
@@ -24,34 +26,56 @@ public class ZookeeperNodeChangeListener implements PathChildrenCacheListener {
 
     private static Logger logger = LoggerFactory.getLogger(ZookeeperNodeChangeListener.class);
 
-    private YmirServiceDiscovery serviceDiscovery;
+    private final String serviceName;
 
-    public ZookeeperNodeChangeListener(YmirServiceDiscovery serviceDiscovery) {
-        this.serviceDiscovery = serviceDiscovery;
+    private final PathChildrenCache childrenCache;
+
+    private final YmirClientProxyFactory proxyFactory;
+
+    public ZookeeperNodeChangeListener(String serviceName, PathChildrenCache childrenCache, YmirClientProxyFactory proxyFactory) {
+        this.serviceName = serviceName;
+        this.childrenCache = childrenCache;
+        this.proxyFactory = proxyFactory;
     }
 
     @Override
     public void childEvent(CuratorFramework curatorFramework, PathChildrenCacheEvent pathChildrenCacheEvent) throws Exception {
-        if (Objects.isNull(pathChildrenCacheEvent.getData())){
-            return;
-        }
         if (logger.isDebugEnabled()){
-            logger.debug("Ymir service listener change,event type:{}, path:{}", pathChildrenCacheEvent.getType().name(), pathChildrenCacheEvent.getData().getPath());
+            logger.debug("Ymir service listener change,event type:{}, service:{}", pathChildrenCacheEvent.getType().name(), serviceName);
         }
-        String uri = new String(pathChildrenCacheEvent.getData().getData(), CommonConstant.UTF_8);
-        ServiceBean serviceBean = GsonUtils.getInstance().fromJson(uri, ServiceBean.class);
         switch (pathChildrenCacheEvent.getType()){
+            case INITIALIZED:
             case CHILD_ADDED:
             case CHILD_UPDATED:
-                List list = CollectionUtils.isEmpty(serviceDiscovery.get(serviceBean.getName())) ? new ArrayList() : serviceDiscovery.get(serviceBean.getName());
-                list.add(serviceBean);
-                serviceDiscovery.put(pathChildrenCacheEvent.getData().getPath(), list);
-                break;
             case CHILD_REMOVED:
-                serviceDiscovery.remove(serviceBean.getName());
+                proxyFactory.updateProviders(serviceName, currentProviders());
                 break;
             default:
                 break;
         }
     }
+
+    /**
+     * 节点缓存中的全部提供者，数据无法解析的节点跳过
+     *
+     * @return 提供者列表
+     */
+    private List<ServiceBean> currentProviders() {
+        List<ChildData> children = childrenCache.getCurrentData();
+        List<ServiceBean> providers = new ArrayList<>(children.size());
+        for (ChildData child : children) {
+            if (Objects.isNull(child.getData()) || child.getData().length == 0) {
+                continue;
+            }
+            try {
+                ServiceBean serviceBean = GsonUtils.getInstance().fromJson(new String(child.getData(), CommonConstant.UTF_8), ServiceBean.class);
+                if (Objects.nonNull(serviceBean)) {
+                    providers.add(serviceBean);
+                }
+            } catch (Exception e) {
+                logger.warn("Ymir service listener skip node:{}, exception:{}", child.getPath(), ExceptionUtils.getMessage(e));
+            }
+        }
+        return providers;
+    }
 }
@@ -7,21 +7,24 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.season.ymir.common.utils.NettyTransportUtils;
 import org.season.ymir.core.codec.MessageEncoder;
+import org.season.ymir.core.codec.MessageFrameDecoder;
 import org.season.ymir.core.codec.MessageRequestDecoder;
 import org.season.ymir.core.property.YmirConfigurationProperty;
-import org.season.ymir.core.protocol.MessageProtocol;
 import org.season.ymir.server.handler.NettyServerHandler;
-import org.season.ymir.spi.loader.ExtensionLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,51 +40,74 @@ public class YmirNettyServer implements DisposableBean {
      */
     private static final Integer READ_TIMEOUT_SECONDS = 3 * 60;
 
-    private Channel channel;
+    private List<Channel> channels = new ArrayList<>();
     private YmirConfigurationProperty property;
     private NettyServerHandler nettyServerHandler;
+    private boolean epoll;
+    /**
+     * acceptor数量，仅epoll下通过SO_REUSEPORT支持多个
+     */
+    private int acceptors;
     // 配置服务器
-    private EventLoopGroup bossGroup = new NioEventLoopGroup();
-    private EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
 
     public YmirNettyServer(YmirConfigurationProperty property, NettyServerHandler nettyServerHandler) {
         this.property = property;
         this.nettyServerHandler = nettyServerHandler;
+        this.epoll = NettyTransportUtils.useEpoll(property.isEpoll());
+        this.acceptors = epoll ? Math.max(1, property.getAcceptors()) : 1;
+        this.bossGroup = NettyTransportUtils.newEventLoopGroup(epoll, acceptors, "netty-server-boss");
+        this.workerGroup = NettyTransportUtils.newEventLoopGroup(epoll, 0, "netty-server-worker");
     }
 
     public void start() {
         try {
             ServerBootstrap bootstrap = new ServerBootstrap();
             bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(NettyTransportUtils.serverChannelClass(epoll))
                     .localAddress(new InetSocketAddress(property.getPort()))
                     .option(ChannelOption.SO_BACKLOG, 1024)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
                     .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(property.getWriteBufferLowWaterMark(), property.getWriteBufferHighWaterMark()))
                     .childHandler(new ChannelInitializer<Channel>() {
                         @Override
                         protected void initChannel(Channel channel) throws Exception {
                             // 获得 Channel 对应的 ChannelPipeline
                             ChannelPipeline channelPipeline = channel.pipeline();
+                            if (property.isFlushConsolidation()) {
+                                // flush合并，业务线程写回的响应在同一次事件循环内合并flush
+                                channelPipeline.addLast(new FlushConsolidationHandler(property.getFlushConsolidationLimit(), true));
+                            }
                             // 添加一堆 NettyServerHandler 到 ChannelPipeline 中
                             channelPipeline
                                     // 空闲检测
                                     .addLast(new ReadTimeoutHandler(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                                    // 帧解码器
+                                    .addLast(new MessageFrameDecoder(property.getMaxSize()))
                                     // 解码器
-                                    .addLast(new MessageRequestDecoder(ExtensionLoader.getExtensionLoader(MessageProtocol.class).getLoader(property.getProtocol()), property.getMaxSize()))
+                                    .addLast(new MessageRequestDecoder())
                                     // 编码器
-                                    .addLast(new MessageEncoder(ExtensionLoader.getExtensionLoader(MessageProtocol.class).getLoader(property.getProtocol())))
+                                    .addLast(new MessageEncoder(property.getCompressThreshold()))
                                     // 服务端处理器
                                     .addLast(nettyServerHandler);
                         }
                     });
 
-            // 启动服务
-            ChannelFuture future = bootstrap.bind().sync();
-            if (future.isSuccess()){
-                logger.debug("Netty Server started successfully.");
-                channel = future.channel();
+            if (acceptors > 1) {
+                // 多个acceptor绑定同一端口，由内核分发连接
+                bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
             }
+
+            // 启动服务，每次绑定的ServerChannel注册在不同的boss线程上
+            for (int i = 0; i < acceptors; i++) {
+                ChannelFuture future = bootstrap.bind().sync();
+                if (future.isSuccess()){
+                    channels.add(future.channel());
+                }
+            }
+            logger.info("Netty Server started successfully, transport:{}, acceptors:{}", epoll ? "epoll" : "nio", acceptors);
         } catch (Exception e) {
             e.printStackTrace();
             logger.error("netty sever started failed,msg:{}", ExceptionUtils.getStackTrace(e));
@@ -91,9 +117,7 @@ public class YmirNettyServer implements DisposableBean {
     @Override
     public void destroy() {
         // 关闭 Netty Server
-        if (channel != null) {
-            channel.close();
-        }
+        channels.forEach(Channel::close);
         // 优雅关闭两个 EventLoopGroup 对象
         bossGroup.shutdownGracefully();
         workerGroup.shutdownGracefully();
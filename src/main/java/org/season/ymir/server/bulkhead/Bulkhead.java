@@ -0,0 +1,103 @@
+package org.season.ymir.server.bulkhead;
+
+import org.season.ymir.common.base.RejectionPolicyEnum;
+import org.season.ymir.common.utils.YmirThreadFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 隔离线程池，服务或方法独占，满载时不影响其他服务
+ *
+ * @author KevinClair
+ **/
+public class Bulkhead {
+
+    /**
+     * 名称，服务名或服务名#方法名
+     */
+    private final String name;
+
+    private final int threads;
+
+    private final int queues;
+
+    private final RejectionPolicyEnum rejection;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 被拒绝的任务数
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int threads, int queues, RejectionPolicyEnum rejection) {
+        this.name = name;
+        this.threads = threads;
+        this.queues = Math.max(0, queues);
+        this.rejection = rejection;
+        BlockingQueue<Runnable> queue = queues > 0 ? new LinkedBlockingQueue<>(queues) : new SynchronousQueue<>();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue,
+                new YmirThreadFactory("bulkhead-" + name), (task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Bulkhead " + name + " is full, threads:" + threads + ", queues:" + this.queues);
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 执行任务
+     *
+     * @param task 任务
+     * @throws RejectedExecutionException 线程与队列均已占满
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * 饱和度，正在执行与排队的任务数占线程数与队列长度之和的比例
+     *
+     * @return 0~1
+     */
+    public double getSaturation() {
+        return (double) (executor.getActiveCount() + executor.getQueue().size()) / (threads + queues);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueues() {
+        return queues;
+    }
+
+    public RejectionPolicyEnum getRejection() {
+        return rejection;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
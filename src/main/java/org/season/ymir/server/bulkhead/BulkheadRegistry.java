@@ -0,0 +1,87 @@
+package org.season.ymir.server.bulkhead;
+
+import org.season.ymir.common.base.RejectionPolicyEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 隔离线程池注册表，方法级配置优先于服务级配置，都没有配置的请求使用服务端公共派发线程池
+ *
+ * @author KevinClair
+ **/
+public class BulkheadRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+    /**
+     * key: 服务名
+     */
+    private final ConcurrentMap<String, Bulkhead> serviceBulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * key: 服务名，value: key为方法名
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, Bulkhead>> methodBulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 注册隔离线程池，已注册的保持不变
+     *
+     * @param serviceName 服务名
+     * @param methodName  方法名，为空时为服务级
+     * @param threads     线程数，不大于0时不注册
+     * @param queues      队列长度
+     * @param rejection   拒绝策略
+     */
+    public void register(String serviceName, String methodName, int threads, int queues, String rejection) {
+        if (threads <= 0) {
+            return;
+        }
+        RejectionPolicyEnum policy = RejectionPolicyEnum.getPolicy(rejection);
+        if (Objects.isNull(methodName) || methodName.isEmpty()) {
+            serviceBulkheads.computeIfAbsent(serviceName, key -> new Bulkhead(serviceName, threads, queues, policy));
+        } else {
+            methodBulkheads.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(methodName, key -> new Bulkhead(serviceName + "#" + methodName, threads, queues, policy));
+        }
+        logger.info("Bulkhead registered, service:{}, method:{}", serviceName, methodName);
+    }
+
+    /**
+     * 查找请求使用的隔离线程池
+     *
+     * @param serviceName 服务名
+     * @param methodName  方法名
+     * @return {@link Bulkhead}，未配置时返回null
+     */
+    public Bulkhead get(String serviceName, String methodName) {
+        Map<String, Bulkhead> methods = methodBulkheads.get(serviceName);
+        if (Objects.nonNull(methods)) {
+            Bulkhead bulkhead = methods.get(methodName);
+            if (Objects.nonNull(bulkhead)) {
+                return bulkhead;
+            }
+        }
+        return serviceBulkheads.get(serviceName);
+    }
+
+    /**
+     * 所有隔离线程池，用于查看饱和度等指标
+     *
+     * @return key: 服务名或服务名#方法名
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        Map<String, Bulkhead> bulkheads = new LinkedHashMap<>(serviceBulkheads);
+        for (Map<String, Bulkhead> methods : methodBulkheads.values()) {
+            for (Bulkhead bulkhead : methods.values()) {
+                bulkheads.put(bulkhead.getName(), bulkhead);
+            }
+        }
+        return bulkheads;
+    }
+}
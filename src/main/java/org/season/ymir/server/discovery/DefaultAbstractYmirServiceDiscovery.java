@@ -1,47 +1,70 @@
 package org.season.ymir.server.discovery;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import org.season.ymir.common.entity.ServiceBean;
-import org.springframework.util.CollectionUtils;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * 服务发现本地缓存
+ * 服务发现本地缓存，每个服务一个{@link ServiceDirectory}，目录创建后不再移除，代理可以长期持有
  *
  * @author KevinClair
  **/
 public abstract class DefaultAbstractYmirServiceDiscovery implements YmirServiceDiscovery {
 
     // 本地缓存
-    private static final Cache<String, List<ServiceBean>> SERVER_MAP = Caffeine.newBuilder()
-            .initialCapacity(10)
-            .maximumSize(50000)
-            .build();
+    private static final ConcurrentMap<String, ServiceDirectory> DIRECTORIES = new ConcurrentHashMap<>();
+
+    @Override
+    public ServiceDirectory getDirectory(String serviceName) {
+        ServiceDirectory directory = DIRECTORIES.get(serviceName);
+        return directory != null ? directory : DIRECTORIES.computeIfAbsent(serviceName, ServiceDirectory::new);
+    }
 
     @Override
     public void remove(String serviceName) {
-        SERVER_MAP.invalidate(serviceName);
+        ServiceDirectory directory = DIRECTORIES.get(serviceName);
+        if (directory != null) {
+            directory.update(null);
+        }
     }
 
     @Override
     public boolean isEmpty(String serviceName) {
-        return CollectionUtils.isEmpty(SERVER_MAP.getIfPresent(serviceName));
+        ServiceDirectory directory = DIRECTORIES.get(serviceName);
+        return directory == null || directory.getSnapshot().isEmpty();
     }
 
     @Override
     public List<ServiceBean> get(String serviceName) {
-        return SERVER_MAP.getIfPresent(serviceName);
+        ServiceDirectory directory = DIRECTORIES.get(serviceName);
+        if (directory == null) {
+            return null;
+        }
+        ProviderSnapshot snapshot = directory.getSnapshot();
+        return snapshot.isEmpty() ? null : snapshot.getProviders();
     }
 
     @Override
     public void put(String serviceName, List<ServiceBean> serviceList) {
-        SERVER_MAP.put(serviceName, serviceList);
+        getDirectory(serviceName).update(serviceList);
+    }
+
+    @Override
+    public boolean hasProvider(String address) {
+        for (ServiceDirectory directory : DIRECTORIES.values()) {
+            for (ServiceBean provider : directory.getSnapshot().getProviders()) {
+                if (provider.getAddress().equals(address)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     @Override
     public List<ServiceBean> findServiceList(String name) throws Exception {
-        return SERVER_MAP.getIfPresent(name);
+        return get(name);
     }
 }
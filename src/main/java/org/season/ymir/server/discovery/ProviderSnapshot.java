@@ -0,0 +1,49 @@
+package org.season.ymir.server.discovery;
+
+import org.season.ymir.common.entity.ServiceBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 服务提供者快照，创建后不可修改，注册中心变更时整体替换
+ *
+ * @author KevinClair
+ **/
+public final class ProviderSnapshot {
+
+    /**
+     * 空快照
+     */
+    static final ProviderSnapshot EMPTY = new ProviderSnapshot(0, Collections.emptyList());
+
+    /**
+     * 版本号，每次替换加1
+     */
+    private final long version;
+
+    /**
+     * 服务提供者，不可修改
+     */
+    private final List<ServiceBean> providers;
+
+    ProviderSnapshot(long version, List<ServiceBean> providers) {
+        this.version = version;
+        this.providers = Objects.isNull(providers) || providers.isEmpty()
+                ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(providers));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ServiceBean> getProviders() {
+        return providers;
+    }
+
+    public boolean isEmpty() {
+        return providers.isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package org.season.ymir.server.discovery;
+
+import org.season.ymir.common.entity.ServiceBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * 单个服务的提供者目录，调用方每次调用只读取一次volatile快照，注册中心变更时整体替换快照
+ *
+ * @author KevinClair
+ **/
+public class ServiceDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceDirectory.class);
+
+    private final String serviceName;
+
+    private volatile ProviderSnapshot snapshot = ProviderSnapshot.EMPTY;
+
+    public ServiceDirectory(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    /**
+     * 当前快照
+     *
+     * @return {@link ProviderSnapshot}
+     */
+    public ProviderSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 替换提供者列表，生成新版本的快照
+     *
+     * @param providers 服务提供者，为空表示没有提供者
+     * @return 新快照
+     */
+    public synchronized ProviderSnapshot update(List<ServiceBean> providers) {
+        ProviderSnapshot updated = new ProviderSnapshot(snapshot.getVersion() + 1, providers);
+        snapshot = updated;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Providers of {} updated to version {}", serviceName, updated.getVersion());
+        }
+        return updated;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+}
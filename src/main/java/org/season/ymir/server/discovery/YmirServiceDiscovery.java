@@ -43,10 +43,26 @@ public interface YmirServiceDiscovery {
     List<ServiceBean> get(String serviceName);
 
     /**
-     * 添加实例
+     * 替换实例列表
      *
      * @param serviceName 服务名称
      * @param serviceList 实例列表
      */
     void put(String serviceName, List<ServiceBean> serviceList);
+
+    /**
+     * 获取服务的提供者目录，同一服务始终返回同一个目录
+     *
+     * @param serviceName 服务名
+     * @return {@link ServiceDirectory}
+     */
+    ServiceDirectory getDirectory(String serviceName);
+
+    /**
+     * 任一服务目录的当前快照中是否存在该地址的提供者
+     *
+     * @param address 服务地址，格式：ip:port
+     * @return 是否存在
+     */
+    boolean hasProvider(String address);
 }
@@ -0,0 +1,19 @@
+package org.season.ymir.server.dispatcher;
+
+import io.netty.util.concurrent.ImmediateExecutor;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 在IO线程直接执行，适用于不阻塞的快速服务，阻塞的服务会拖慢同一IO线程上的所有连接
+ *
+ * @author KevinClair
+ **/
+public class DirectDispatcher implements Dispatcher {
+
+    @Override
+    public Executor createExecutor(YmirConfigurationProperty property) {
+        return ImmediateExecutor.INSTANCE;
+    }
+}
@@ -0,0 +1,23 @@
+package org.season.ymir.server.dispatcher;
+
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.spi.annodation.SPI;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 服务端请求派发策略，决定请求在哪个线程上执行
+ *
+ * @author KevinClair
+ **/
+@SPI("fixed")
+public interface Dispatcher {
+
+    /**
+     * 创建执行请求的执行器
+     *
+     * @param property 配置属性
+     * @return {@link Executor}，超出容量时抛出{@link java.util.concurrent.RejectedExecutionException}
+     */
+    Executor createExecutor(YmirConfigurationProperty property);
+}
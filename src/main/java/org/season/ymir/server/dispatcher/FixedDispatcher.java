@@ -0,0 +1,34 @@
+package org.season.ymir.server.dispatcher;
+
+import org.season.ymir.common.utils.YmirThreadFactory;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 固定大小线程池，队列长度不大于0时不排队，线程空闲60秒后回收
+ *
+ * @author KevinClair
+ **/
+public class FixedDispatcher implements Dispatcher {
+
+    @Override
+    public Executor createExecutor(YmirConfigurationProperty property) {
+        int threads = Math.max(1, property.getDispatcherThreads());
+        int queueSize = property.getDispatcherQueueSize();
+        BlockingQueue<Runnable> queue = queueSize > 0 ? new LinkedBlockingQueue<>(queueSize) : new SynchronousQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue,
+                new YmirThreadFactory("dispatcher"), (task, pool) -> {
+            throw new RejectedExecutionException("Dispatcher is exhausted, threads:" + pool.getPoolSize()
+                    + ", active:" + pool.getActiveCount() + ", queued:" + pool.getQueue().size());
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,25 @@
+package org.season.ymir.server.dispatcher;
+
+import org.season.ymir.core.property.YmirConfigurationProperty;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * 工作窃取线程池，并行度为{@code dispatcherThreads}，任务队列无界，适用于不阻塞的计算型服务
+ *
+ * @author KevinClair
+ **/
+public class ForkJoinDispatcher implements Dispatcher {
+
+    @Override
+    public Executor createExecutor(YmirConfigurationProperty property) {
+        int parallelism = Math.max(1, property.getDispatcherThreads());
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ymir-dispatcher-forkjoin-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+    }
+}
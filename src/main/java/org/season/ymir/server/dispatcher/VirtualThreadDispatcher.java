@@ -0,0 +1,29 @@
+package org.season.ymir.server.dispatcher;
+
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 每个请求一个虚拟线程，适用于阻塞IO的服务，需要JDK 21及以上，低版本退回{@link FixedDispatcher}
+ *
+ * @author KevinClair
+ **/
+public class VirtualThreadDispatcher implements Dispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadDispatcher.class);
+
+    @Override
+    public Executor createExecutor(YmirConfigurationProperty property) {
+        try {
+            // 编译目标为JDK 8，通过反射创建
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Virtual thread is not supported on JDK {}, fall back to fixed dispatcher", System.getProperty("java.version"));
+            return new FixedDispatcher().createExecutor(property);
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package org.season.ymir.server.handler;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
+import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.season.ymir.common.utils.YmirThreadFactory;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.base.RejectionPolicyEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.exception.RpcBusyException;
+import org.season.ymir.common.exception.RpcException;
+import org.season.ymir.common.model.YmirNettyMessage;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.model.YmirResponse;
 import org.season.ymir.core.handler.RequestHandler;
+import org.season.ymir.core.limit.ConcurrencyLimiter;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.server.bulkhead.Bulkhead;
+import org.season.ymir.server.bulkhead.BulkheadRegistry;
+import org.season.ymir.server.dispatcher.Dispatcher;
+import org.season.ymir.spi.loader.ExtensionLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Netty服务端处理器
@@ -22,15 +38,62 @@ public class NettyServerHandler extends  ChannelInboundHandlerAdapter {
 
     private Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * 慢消费者检测任务
+     */
+    private static final AttributeKey<ScheduledFuture<?>> SLOW_CONSUMER_CHECK = AttributeKey.valueOf("ymir.slowConsumerCheck");
+
     private RequestHandler requestHandler;
-    private ExecutorService executorService;
 
-    public NettyServerHandler(RequestHandler requestHandler) {
+    /**
+     * 请求执行器，由{@link Dispatcher}创建
+     */
+    private Executor executor;
+
+    /**
+     * 服务与方法的隔离线程池
+     */
+    private final BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * 通道持续不可写超过该时间关闭连接，单位：毫秒，不大于0时不关闭
+     */
+    private final long slowConsumerTimeout;
+
+    /**
+     * 等待执行的请求数上限，不大于0时不限制
+     */
+    private final int shedQueueDepth;
+
+    /**
+     * 请求排队时间上限，单位：纳秒，不大于0时不限制
+     */
+    private final long shedQueueWaitNanos;
+
+    /**
+     * 已派发尚未开始执行的请求数
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 因过载返回{@link ServiceStatusEnum#SERVER_BUSY}的请求数
+     */
+    private final LongAdder shed = new LongAdder();
+
+    /**
+     * 自适应并发限制器，未配置时为null
+     */
+    private final ConcurrencyLimiter limiter;
+
+    public NettyServerHandler(RequestHandler requestHandler, BulkheadRegistry bulkheadRegistry, YmirConfigurationProperty property) {
         this.requestHandler = requestHandler;
-        this.executorService = new ThreadPoolExecutor(4, 8,
-                200, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(1000),
-                new YmirThreadFactory("netty"));
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.slowConsumerTimeout = property.getSlowConsumerTimeout();
+        this.shedQueueDepth = property.getShedQueueDepth();
+        this.shedQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(property.getShedQueueWait());
+        this.limiter = StringUtils.isBlank(property.getLimiter()) ? null : new ConcurrencyLimiter(property.getLimiter(),
+                property.getLimiterInitialLimit(), property.getLimiterMinLimit(), property.getLimiterMaxLimit());
+        this.executor = ExtensionLoader.getExtensionLoader(Dispatcher.class).getLoader(property.getDispatcher()).createExecutor(property);
     }
 
     /**
@@ -59,32 +122,261 @@ public class NettyServerHandler extends  ChannelInboundHandlerAdapter {
         logger.error("Netty server, one channel caught error, channel info:{}, exception:{}", ctx.channel(), ExceptionUtils.getStackTrace(cause));
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        Channel channel = ctx.channel();
+        if (!channel.isWritable()) {
+            // 客户端读取响应过慢，暂停读取新请求，持续不可写则关闭连接
+            channel.config().setAutoRead(false);
+            if (slowConsumerTimeout > 0 && Objects.isNull(channel.attr(SLOW_CONSUMER_CHECK).get())) {
+                channel.attr(SLOW_CONSUMER_CHECK).set(ctx.executor().schedule(() -> {
+                    if (!channel.isWritable()) {
+                        logger.warn("Netty server, close slow consumer channel:{}, unwritable for {}ms", channel, slowConsumerTimeout);
+                        channel.close();
+                    }
+                }, slowConsumerTimeout, TimeUnit.MILLISECONDS));
+            }
+        } else {
+            channel.config().setAutoRead(true);
+            ScheduledFuture<?> check = channel.attr(SLOW_CONSUMER_CHECK).getAndSet(null);
+            if (Objects.nonNull(check)) {
+                check.cancel(false);
+            }
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        executorService.submit(() -> {
-            try {
-                if (logger.isDebugEnabled()){
-                    logger.debug("the server receives message :{}", msg);
+        YmirNettyMessage message = (YmirNettyMessage) msg;
+        if (message.getMessageType() == MessageTypeEnum.HEARTBEAT_REQUEST) {
+            // 心跳在IO线程直接应答，原样回传请求id供客户端计算往返时间
+            ctx.writeAndFlush(new YmirNettyMessage(MessageTypeEnum.HEARTBEAT_RESPONSE, message.getSerialization(), message.getRequestId(), null));
+            return;
+        }
+        if (message.getMessageType() == MessageTypeEnum.METHOD_TABLE_REQUEST) {
+            ctx.writeAndFlush(new YmirNettyMessage(MessageTypeEnum.METHOD_TABLE_RESPONSE, message.getSerialization(), message.getRequestId(), requestHandler.getMethodTable()));
+            return;
+        }
+        if (message.getMessageType() != MessageTypeEnum.REQUEST && message.getMessageType() != MessageTypeEnum.ONEWAY) {
+            if (logger.isDebugEnabled()){
+                logger.debug("the server ignores message of type:{}", message.getMessageType());
+            }
+            return;
+        }
+        if (!requestHandler.resolveMethod(message)) {
+            reject(ctx, message, ServiceStatusEnum.NOT_FOUND, null);
+            return;
+        }
+        long arrival = System.nanoTime();
+        if (Objects.nonNull(limiter) && !limiter.tryAcquire()) {
+            busy(ctx, message, "Server is busy, concurrency limit:" + limiter.getLimit());
+            return;
+        }
+        int depth = queued.incrementAndGet();
+        if (shedQueueDepth > 0 && depth > shedQueueDepth) {
+            queued.decrementAndGet();
+            busy(ctx, message, "Server is busy, queued requests:" + (depth - 1));
+            release(arrival, true);
+            return;
+        }
+        try {
+            dispatch((YmirRequest) message.getBody(), () -> {
+                queued.decrementAndGet();
+                long waited = System.nanoTime() - arrival;
+                if (shedQueueWaitNanos > 0 && waited > shedQueueWaitNanos) {
+                    // 排队过久，调用方可能已超时，不再执行
+                    busy(ctx, message, "Server is busy, request queued for " + TimeUnit.NANOSECONDS.toMillis(waited) + "ms");
+                    release(arrival, true);
+                    return;
                 }
-                ByteBuf byteBuf = (ByteBuf) msg;
-                // 消息写入reqData
-                byte[] reqData = new byte[byteBuf.readableBytes()];
-                byteBuf.readBytes(reqData);
-                // 手动回收
-                ReferenceCountUtil.release(byteBuf);
-                byte[] respData = requestHandler.handleRequest(reqData);
-                ByteBuf respBuf = Unpooled.buffer(respData.length);
-                respBuf.writeBytes(respData);
-                if (logger.isDebugEnabled()){
-                    logger.debug("Send response:{}", respBuf);
+                handle(ctx, message, arrival);
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            busy(ctx, message, e.getMessage());
+            release(arrival, true);
+        }
+    }
+
+    /**
+     * 请求结束，释放并发名额并记录从到达到结束的延迟
+     *
+     * @param arrival 请求到达时的{@link System#nanoTime()}
+     * @param dropped 是否因过载被丢弃
+     */
+    private void release(long arrival, boolean dropped) {
+        if (Objects.nonNull(limiter)) {
+            limiter.release(arrival, dropped);
+        }
+    }
+
+    /**
+     * 派发请求，优先使用方法或服务的隔离线程池
+     *
+     * @param request 请求
+     * @param task    处理任务
+     * @throws RejectedExecutionException 线程池满载
+     */
+    private void dispatch(YmirRequest request, Runnable task) {
+        Bulkhead bulkhead = bulkheadRegistry.get(request.getServiceName(), request.getMethod());
+        if (Objects.nonNull(bulkhead)) {
+            try {
+                bulkhead.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (bulkhead.getRejection() == RejectionPolicyEnum.ABORT) {
+                    throw e;
                 }
-                ctx.writeAndFlush(respBuf);
-            } catch (Exception e) {
-                logger.error("server read exception:{}", ExceptionUtils.getStackTrace(e));
             }
+        }
+        executor.execute(task);
+    }
+
+    /**
+     * 业务线程处理请求并写回响应
+     *
+     * @param ctx     {@link ChannelHandlerContext}
+     * @param message 请求消息
+     * @param arrival 请求到达时的{@link System#nanoTime()}
+     */
+    private void handle(ChannelHandlerContext ctx, YmirNettyMessage message, long arrival) {
+        boolean async = false;
+        try {
+            if (logger.isDebugEnabled()){
+                logger.debug("the server receives message :{}", message.getRequestId());
+            }
+            YmirResponse response = requestHandler.handleRequest(message);
+            if (message.getMessageType() == MessageTypeEnum.ONEWAY) {
+                return;
+            }
+            if (response.getReturnValue() instanceof CompletionStage) {
+                // 异步服务，结果完成后写回
+                async = true;
+                ((CompletionStage<?>) response.getReturnValue()).whenComplete((result, cause) -> {
+                    YmirResponse asyncResponse;
+                    if (Objects.isNull(cause)) {
+                        asyncResponse = new YmirResponse(ServiceStatusEnum.SUCCESS);
+                        asyncResponse.setReturnValue(result);
+                    } else {
+                        Throwable throwable = cause instanceof CompletionException && Objects.nonNull(cause.getCause()) ? cause.getCause() : cause;
+                        asyncResponse = new YmirResponse(ServiceStatusEnum.ERROR);
+                        asyncResponse.setException(throwable instanceof Exception ? (Exception) throwable : new CompletionException(throwable));
+                    }
+                    writeResponse(ctx, message, asyncResponse);
+                    release(arrival, false);
+                });
+                return;
+            }
+            writeResponse(ctx, message, response);
+        } catch (Exception e) {
+            logger.error("server read exception:{}", ExceptionUtils.getStackTrace(e));
+            // 处理失败时返回异常，避免调用方等到超时
+            reject(ctx, message, ServiceStatusEnum.ERROR, e);
+        } finally {
+            if (!async) {
+                release(arrival, false);
+            }
+        }
+    }
+
+    /**
+     * 过载丢弃请求，立即返回{@link ServiceStatusEnum#SERVER_BUSY}，不断开连接
+     *
+     * @param ctx     {@link ChannelHandlerContext}
+     * @param message 请求消息
+     * @param reason  原因
+     */
+    private void busy(ChannelHandlerContext ctx, YmirNettyMessage message, String reason) {
+        shed.increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Netty server, request {} shed: {}", message.getRequestId(), reason);
+        }
+        reject(ctx, message, ServiceStatusEnum.SERVER_BUSY, new RpcBusyException(reason));
+    }
+
+    /**
+     * 不执行请求，释放消息体并直接返回指定状态
+     *
+     * @param ctx       {@link ChannelHandlerContext}
+     * @param message   请求消息
+     * @param status    响应状态
+     * @param exception 异常，可以为空
+     */
+    private void reject(ChannelHandlerContext ctx, YmirNettyMessage message, ServiceStatusEnum status, Exception exception) {
+        ReferenceCountUtil.release(message.getPayload());
+        message.setPayload(null);
+        if (message.getMessageType() == MessageTypeEnum.ONEWAY) {
+            return;
+        }
+        YmirResponse response = new YmirResponse(status);
+        response.setException(exception);
+        response.setRequestId(message.getRequestId());
+        writeResponse(ctx, message, response);
+    }
+
+    private void writeResponse(ChannelHandlerContext ctx, YmirNettyMessage message, YmirResponse response) {
+        writeResponse(ctx, message, response, true);
+    }
+
+    /**
+     * 写回响应
+     *
+     * @param ctx      {@link ChannelHandlerContext}
+     * @param message  请求消息
+     * @param response 响应
+     * @param fallback 写出失败（如返回值无法序列化）时是否改为返回异常响应，异常响应本身写出失败时不再重试
+     */
+    private void writeResponse(ChannelHandlerContext ctx, YmirNettyMessage message, YmirResponse response, boolean fallback) {
+        YmirNettyMessage responseMessage = new YmirNettyMessage(MessageTypeEnum.RESPONSE, message.getSerialization(), message.getRequestId(), response);
+        responseMessage.setStatus(response.getStatusEnum().getFlag());
+        // 按请求方期望的压缩方式压缩响应
+        responseMessage.setCompressor(message.getResponseCompressor());
+        if (logger.isDebugEnabled()){
+            logger.debug("Send response:{}", message.getRequestId());
+        }
+        ctx.writeAndFlush(responseMessage).addListener((ChannelFutureListener) future -> {
+            if (future.isSuccess()) {
+                return;
+            }
+            logger.error("Netty server, write response {} failed:{}", message.getRequestId(), ExceptionUtils.getStackTrace(future.cause()));
+            if (!fallback || !future.channel().isActive()) {
+                return;
+            }
+            YmirResponse error = new YmirResponse(ServiceStatusEnum.ERROR);
+            error.setException(new RpcException("Server failed to write response, cause:" + future.cause().getMessage()));
+            error.setRequestId(message.getRequestId());
+            writeResponse(ctx, message, error, false);
         });
     }
 
+    /**
+     * 已派发尚未开始执行的请求数
+     *
+     * @return 请求数
+     */
+    public int getQueuedRequests() {
+        return queued.get();
+    }
+
+    /**
+     * 因过载返回{@link ServiceStatusEnum#SERVER_BUSY}的请求数
+     *
+     * @return 请求数
+     */
+    public long getShedRequests() {
+        return shed.sum();
+    }
+
+    /**
+     * 自适应并发限制器，可查看当前上限与变化记录
+     *
+     * @return {@link ConcurrencyLimiter}，未配置时为null
+     */
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
         ctx.flush();
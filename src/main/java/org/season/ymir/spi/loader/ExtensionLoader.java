@@ -87,6 +87,27 @@ public class ExtensionLoader<T> {
         return (T) value;
     }
 
+    /**
+     * 创建name对应实现类的新实例，不缓存，用于有状态的扩展
+     *
+     * @param name 扩展名
+     * @return 新实例
+     */
+    public T newExtension(String name) {
+        SPI annotation = clazz.getAnnotation(SPI.class);
+        name = StringUtils.isBlank(name) ? annotation.value() : name;
+        Class<?> aClass = getExtensionClasses().get(name);
+        if (aClass == null) {
+            throw new IllegalArgumentException("name is error");
+        }
+        try {
+            return (T) aClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Extension instance(name: " + name + ", class: "
+                    + aClass + ")  could not be instantiated: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * 创建对象缓存
      *
@@ -0,0 +1,55 @@
+package org.season.ymir.client.handler;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+import org.season.ymir.client.YmirNettyClient;
+import org.season.ymir.client.pool.ConnectionPool;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.model.YmirNettyMessage;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 客户端请求处理器测试
+ *
+ * @author KevinClair
+ **/
+public class NettyClientHandlerTest {
+
+    @Test
+    public void sampleRttOnBusyConnection() throws Exception {
+        YmirConfigurationProperty property = new YmirConfigurationProperty();
+        property.setMethodIdRouting(false);
+        ConnectionPool pool = new ConnectionPool("127.0.0.1:20777", "protoBuf", new YmirNettyClient(property), property);
+        NettyClientHandler handler = new NettyClientHandler("protoBuf", "127.0.0.1:20777", 1024, false, false, 20, pool);
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+
+        int heartbeats = 0;
+        for (int i = 0; i < 5; i++) {
+            // 连接持续有请求，心跳仍按间隔发送
+            YmirRequest request = new YmirRequest();
+            request.setServiceName("org.season.ymir.Service");
+            request.setMethod("echo");
+            handler.sendRequest(request, 10000);
+            Thread.sleep(30);
+            channel.runScheduledPendingTasks();
+            YmirNettyMessage message;
+            while (Objects.nonNull(message = channel.readOutbound())) {
+                if (message.getMessageType() == MessageTypeEnum.HEARTBEAT_REQUEST) {
+                    heartbeats++;
+                    channel.writeInbound(new YmirNettyMessage(MessageTypeEnum.HEARTBEAT_RESPONSE, message.getSerialization(), message.getRequestId(), null));
+                }
+            }
+        }
+        assertTrue(heartbeats > 0);
+        assertTrue(handler.getLastRtt() >= 0);
+        assertTrue(handler.getSmoothedRtt() >= 0);
+        assertEquals(5, handler.getPendingCount());
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,99 @@
+package org.season.ymir.client.pool;
+
+import org.junit.Test;
+import org.season.ymir.client.YmirNettyClient;
+import org.season.ymir.client.handler.NettyClientHandler;
+import org.season.ymir.client.proxy.YmirClientProxyFactory;
+import org.season.ymir.common.base.ConnectionStateEnum;
+import org.season.ymir.common.entity.ServiceBean;
+import org.season.ymir.common.exception.RpcException;
+import org.season.ymir.common.exception.RpcTimeoutException;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.model.YmirResponse;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.server.discovery.DefaultAbstractYmirServiceDiscovery;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 连接池测试
+ *
+ * @author KevinClair
+ **/
+public class ConnectionPoolTest {
+
+    @Test
+    public void failParkedRequestsWhenConnectFails() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        YmirConfigurationProperty property = new YmirConfigurationProperty();
+        property.setReconnectInitialDelay(60000);
+        YmirNettyClient client = new YmirNettyClient(property);
+        ServiceBean service = new ServiceBean("org.season.ymir.Service", null, "protoBuf", "127.0.0.1:" + port, 1, "", "");
+        YmirRequest request = new YmirRequest();
+        request.setServiceName(service.getName());
+        request.setMethod("echo");
+
+        long start = System.nanoTime();
+        // 连接尚未建立，请求在连接上等待，连接失败后不应等到超时
+        CompletableFuture<YmirResponse> future = client.sendRequest(request, service, "protoBuf", 30000);
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Request to unreachable provider should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RpcException);
+            assertFalse(e.getCause() instanceof RpcTimeoutException);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+
+    @Test
+    public void stopReconnectWhenProviderRemoved() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String address = "127.0.0.1:" + port;
+        YmirConfigurationProperty property = new YmirConfigurationProperty();
+        property.setReconnectInitialDelay(10);
+        property.setReconnectMaxDelay(20);
+        AtomicInteger attempts = new AtomicInteger();
+        YmirNettyClient client = new YmirNettyClient(property) {
+            @Override
+            public void connect(String address, NettyClientHandler handler) {
+                attempts.incrementAndGet();
+                super.connect(address, handler);
+            }
+        };
+        String serviceName = "org.season.ymir.RemovedService";
+        YmirClientProxyFactory factory = new YmirClientProxyFactory(new DefaultAbstractYmirServiceDiscovery() {
+        }, client, "protoBuf", 1000, "none", "random", 0);
+        factory.updateProviders(serviceName, Collections.singletonList(new ServiceBean(serviceName, null, "protoBuf", address, 1, "", "")));
+        client.warmUp(address, "protoBuf");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (attempts.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(attempts.get() >= 3);
+
+        // 提供者下线后关闭连接池，不再重连
+        factory.updateProviders(serviceName, Collections.emptyList());
+        assertEquals(ConnectionStateEnum.IDLE, client.getState(address));
+        Thread.sleep(200);
+        int stopped = attempts.get();
+        Thread.sleep(500);
+        assertEquals(stopped, attempts.get());
+    }
+}
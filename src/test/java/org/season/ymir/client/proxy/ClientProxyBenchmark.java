@@ -0,0 +1,170 @@
+package org.season.ymir.client.proxy;
+
+import org.season.ymir.client.YmirNettyClient;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.entity.ServiceBean;
+import org.season.ymir.common.entity.ServiceMethod;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.model.YmirResponse;
+import org.season.ymir.common.utils.LoadBalanceUtils;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.server.discovery.DefaultAbstractYmirServiceDiscovery;
+import org.season.ymir.server.discovery.YmirServiceDiscovery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端代理调用开销基准测试，cglib代理与逐次解析调用信息的JDK动态代理对比
+ * <p>
+ * 网络客户端直接返回成功响应，只测量代理分发、请求构造与提供者选择；运行{@link #main(String[])}或
+ * {@code java -cp <测试classpath> org.openjdk.jmh.Main ClientProxyBenchmark}
+ *
+ * @author KevinClair
+ **/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientProxyBenchmark {
+
+    private static final long TIMEOUT = 2000;
+
+    private EchoService cglibProxy;
+
+    private EchoService jdkProxy;
+
+    @Setup
+    public void setup() {
+        YmirConfigurationProperty property = new YmirConfigurationProperty();
+        YmirNettyClient client = new YmirNettyClient(property) {
+            @Override
+            public CompletableFuture<YmirResponse> sendRequest(YmirRequest request, ServiceBean service, String protocol, long timeout) {
+                YmirResponse response = new YmirResponse(ServiceStatusEnum.SUCCESS);
+                response.setReturnValue(request.getParameters()[0]);
+                return CompletableFuture.completedFuture(response);
+            }
+        };
+        DefaultAbstractYmirServiceDiscovery discovery = new DefaultAbstractYmirServiceDiscovery() {
+        };
+        String serviceName = EchoService.class.getName();
+        discovery.put(serviceName, new ArrayList<>(Arrays.asList(
+                new ServiceBean(serviceName, null, "protoBuf", "127.0.0.1:20777", 1, "", ""),
+                new ServiceBean(serviceName, null, "protoBuf", "127.0.0.1:20778", 1, "", ""))));
+        cglibProxy = new YmirClientProxyFactory(discovery, client, "protoBuf", TIMEOUT, "none", "random", 2).getProxy(EchoService.class);
+        jdkProxy = (EchoService) Proxy.newProxyInstance(EchoService.class.getClassLoader(), new Class[]{EchoService.class},
+                new JdkInvocationHandler(EchoService.class, discovery, client));
+    }
+
+    @Benchmark
+    public String cglibProxy() {
+        return cglibProxy.echo("ymir");
+    }
+
+    @Benchmark
+    public String jdkProxy() {
+        return jdkProxy.echo("ymir");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ClientProxyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    public interface EchoService {
+
+        String echo(String value);
+    }
+
+    /**
+     * 改用cglib之前的调用路径：每次调用按服务名读取提供者列表，由{@link Method}解析方法名、参数类型与签名，
+     * 按方法名查找超时时间与压缩方式，并通过SPI加载负载均衡
+     */
+    private static class JdkInvocationHandler implements InvocationHandler {
+
+        private final Class<?> clazz;
+
+        private final YmirServiceDiscovery discovery;
+
+        private final YmirNettyClient client;
+
+        private final Map<String, Long> methodTimeouts = new HashMap<>();
+
+        private final Map<String, Byte> methodCompressors = new HashMap<>();
+
+        private final Map<Method, String> signatures = new ConcurrentHashMap<>();
+
+        private JdkInvocationHandler(Class<?> clazz, YmirServiceDiscovery discovery, YmirNettyClient client) {
+            this.clazz = clazz;
+            this.discovery = discovery;
+            this.client = client;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String serviceName = clazz.getName();
+            List<ServiceBean> services;
+            synchronized (serviceName) {
+                services = discovery.isEmpty(serviceName) ? discovery.findServiceList(serviceName) : discovery.get(serviceName);
+            }
+            YmirRequest request = new YmirRequest();
+            request.setMethod(method.getName());
+            request.setParameters(args);
+            request.setParameterTypes(method.getParameterTypes());
+            request.setSignature(signatures.computeIfAbsent(method, key -> ServiceMethod.signature(key.getName(), key.getParameterTypes())));
+            request.setCompressor(methodCompressors.getOrDefault(method.getName(), CompressorTypeEnum.NONE.getCode()));
+            long timeout = methodTimeouts.getOrDefault(method.getName(), TIMEOUT);
+            List<ServiceBean> available = new ArrayList<>(services.size());
+            for (ServiceBean service : services) {
+                if (client.isAvailable(service.getAddress()) && !client.isAtLimit(service.getAddress())) {
+                    available.add(service);
+                }
+            }
+            ServiceBean service = LoadBalanceUtils.selector(available.isEmpty() ? services : available, "", "");
+            request.setServiceName(service.getName());
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            client.sendRequest(request, service, "protoBuf", timeout).whenComplete((response, cause) -> {
+                if (Objects.nonNull(cause)) {
+                    result.completeExceptionally(cause);
+                } else {
+                    result.complete(response.getReturnValue());
+                }
+            });
+            if (method.getReturnType() == CompletableFuture.class || method.getReturnType() == CompletionStage.class) {
+                return result;
+            }
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
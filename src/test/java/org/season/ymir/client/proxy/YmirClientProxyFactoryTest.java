@@ -0,0 +1,85 @@
+package org.season.ymir.client.proxy;
+
+import org.junit.Test;
+import org.season.ymir.client.YmirNettyClient;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.entity.ServiceBean;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.model.YmirResponse;
+import org.season.ymir.core.annotation.YmirReference;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.server.discovery.DefaultAbstractYmirServiceDiscovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 客户端代理测试，surefire未添加--add-opens，同时验证JDK 16以上可以生成代理类
+ *
+ * @author KevinClair
+ **/
+public class YmirClientProxyFactoryTest {
+
+    @YmirReference(loadBalance = "robin")
+    private EchoService robinReference;
+
+    @Test
+    public void invokeThroughGeneratedProxy() throws Exception {
+        List<String> addresses = new ArrayList<>();
+        YmirClientProxyFactory factory = factory(addresses);
+        EchoService proxy = factory.getProxy(EchoService.class);
+        assertEquals("ymir", proxy.echo("ymir"));
+        assertEquals("async", proxy.echoAsync("async").get());
+        assertEquals(2, addresses.size());
+        // Object的方法不发起远程调用
+        assertTrue(proxy.toString().contains(EchoService.class.getSimpleName()));
+        assertEquals(proxy.hashCode(), proxy.hashCode());
+        assertTrue(proxy.equals(proxy));
+        assertEquals(2, addresses.size());
+        assertSame(proxy, factory.getProxy(EchoService.class));
+    }
+
+    @Test
+    public void selectProviderByReferenceLoadBalance() throws Exception {
+        List<String> addresses = new ArrayList<>();
+        YmirClientProxyFactory factory = factory(addresses);
+        YmirReference reference = getClass().getDeclaredField("robinReference").getAnnotation(YmirReference.class);
+        EchoService proxy = factory.getProxy(EchoService.class, reference);
+        proxy.echo("first");
+        proxy.echo("second");
+        assertEquals(2, new HashSet<>(addresses).size());
+    }
+
+    private static YmirClientProxyFactory factory(List<String> addresses) {
+        YmirNettyClient client = new YmirNettyClient(new YmirConfigurationProperty()) {
+            @Override
+            public CompletableFuture<YmirResponse> sendRequest(YmirRequest request, ServiceBean service, String protocol, long timeout) {
+                addresses.add(service.getAddress());
+                YmirResponse response = new YmirResponse(ServiceStatusEnum.SUCCESS);
+                response.setReturnValue(request.getParameters()[0]);
+                return CompletableFuture.completedFuture(response);
+            }
+        };
+        DefaultAbstractYmirServiceDiscovery discovery = new DefaultAbstractYmirServiceDiscovery() {
+        };
+        String serviceName = EchoService.class.getName();
+        discovery.put(serviceName, new ArrayList<>(Arrays.asList(
+                new ServiceBean(serviceName, null, "protoBuf", "127.0.0.1:20777", 1, "", ""),
+                new ServiceBean(serviceName, null, "protoBuf", "127.0.0.1:20778", 1, "", ""))));
+        return new YmirClientProxyFactory(discovery, client, "protoBuf", 2000, "none", "random", 2);
+    }
+
+    public interface EchoService {
+
+        String echo(String value);
+
+        CompletableFuture<String> echoAsync(String value);
+    }
+}
@@ -0,0 +1,165 @@
+package org.season.ymir.core.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.Test;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.base.SerializationTypeEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.constant.CommonConstant;
+import org.season.ymir.common.model.YmirNettyMessage;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.model.YmirResponse;
+import org.season.ymir.common.utils.MessageProtocolUtils;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 帧解码测试，消息按随机长度拆分与合并后写入，验证半包与粘包处理
+ *
+ * @author KevinClair
+ **/
+public class MessageFrameDecoderTest {
+
+    private static final int MAX_SIZE = 8 << 20;
+
+    private static final int FRAMES = 5000;
+
+    private static final byte SERIALIZATION = SerializationTypeEnum.PROTOBUF.getCode();
+
+    @Test
+    public void decodeFragmentedAndCoalescedRequests() throws Exception {
+        Random random = new Random(20211001);
+        ByteBuf stream = Unpooled.buffer();
+        EmbeddedChannel encoder = new EmbeddedChannel(new MessageEncoder(1024));
+        for (int i = 1; i <= FRAMES; i++) {
+            YmirRequest request = new YmirRequest();
+            request.setServiceName("org.season.ymir.Service" + i % 7);
+            request.setMethod("method" + i % 13);
+            request.setParameterTypes(new Class[]{String.class});
+            request.setParameters(new Object[]{randomString(random, random.nextInt(4096))});
+            YmirNettyMessage message = new YmirNettyMessage(i % 5 == 0 ? MessageTypeEnum.ONEWAY : MessageTypeEnum.REQUEST, SERIALIZATION, i, request);
+            message.setCompressor(i % 3 == 0 ? CompressorTypeEnum.GZIP.getCode() : CompressorTypeEnum.NONE.getCode());
+            encoder.writeOutbound(message);
+            ByteBuf frame = encoder.readOutbound();
+            stream.writeBytes(frame);
+            frame.release();
+        }
+
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageFrameDecoder(MAX_SIZE), new MessageRequestDecoder());
+        int expected = 1;
+        while (stream.isReadable()) {
+            // 小块产生半包，大块一次包含多个帧
+            int chunk = random.nextInt(10) == 0 ? random.nextInt(20000) + 1 : random.nextInt(64) + 1;
+            channel.writeInbound(stream.readRetainedSlice(Math.min(chunk, stream.readableBytes())));
+            YmirNettyMessage message;
+            while ((message = channel.readInbound()) != null) {
+                assertEquals(expected, message.getRequestId());
+                assertEquals(expected % 5 == 0 ? MessageTypeEnum.ONEWAY : MessageTypeEnum.REQUEST, message.getMessageType());
+                YmirRequest request = (YmirRequest) message.getBody();
+                assertEquals("org.season.ymir.Service" + expected % 7, request.getServiceName());
+                assertEquals("method" + expected % 13, request.getMethod());
+                ByteBuf payload = message.getPayload();
+                try {
+                    if (message.getCompressor() == CompressorTypeEnum.NONE.getCode()) {
+                        YmirRequest decoded = MessageProtocolUtils.getProtocol(SERIALIZATION).unmarshalling(payload, YmirRequest.class);
+                        assertEquals(1, decoded.getParameters().length);
+                    }
+                } finally {
+                    payload.release();
+                }
+                expected++;
+            }
+        }
+        stream.release();
+        assertEquals(FRAMES + 1, expected);
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void decodeFragmentedResponses() {
+        Random random = new Random(7);
+        ByteBuf stream = Unpooled.buffer();
+        EmbeddedChannel encoder = new EmbeddedChannel(new MessageEncoder(256));
+        for (int i = 1; i <= FRAMES; i++) {
+            YmirResponse response = new YmirResponse(ServiceStatusEnum.SUCCESS);
+            response.setReturnValue(randomString(random, random.nextInt(2048)));
+            YmirNettyMessage message = new YmirNettyMessage(MessageTypeEnum.RESPONSE, SERIALIZATION, i, response);
+            message.setStatus(ServiceStatusEnum.SUCCESS.getFlag());
+            message.setCompressor(i % 2 == 0 ? CompressorTypeEnum.GZIP.getCode() : CompressorTypeEnum.NONE.getCode());
+            encoder.writeOutbound(message);
+            ByteBuf frame = encoder.readOutbound();
+            stream.writeBytes(frame);
+            frame.release();
+        }
+
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageFrameDecoder(MAX_SIZE), new MessageResponseDecoder(MAX_SIZE));
+        int expected = 1;
+        while (stream.isReadable()) {
+            channel.writeInbound(stream.readRetainedSlice(Math.min(random.nextInt(3000) + 1, stream.readableBytes())));
+            YmirNettyMessage message;
+            while ((message = channel.readInbound()) != null) {
+                YmirResponse response = (YmirResponse) message.getBody();
+                assertEquals(expected, response.getRequestId());
+                assertEquals(ServiceStatusEnum.SUCCESS, response.getStatusEnum());
+                assertTrue(response.getReturnValue() instanceof String);
+                expected++;
+            }
+        }
+        stream.release();
+        assertEquals(FRAMES + 1, expected);
+    }
+
+    @Test
+    public void rejectIllegalMagicNumber() {
+        ByteBuf frame = header(CommonConstant.MAGIC_NUMBER + 1, CommonConstant.PROTOCOL_VERSION);
+        assertCorrupted(frame);
+    }
+
+    @Test
+    public void rejectUnsupportedVersion() {
+        ByteBuf frame = header(CommonConstant.MAGIC_NUMBER, (byte) (CommonConstant.PROTOCOL_VERSION + 1));
+        assertCorrupted(frame);
+    }
+
+    private static void assertCorrupted(ByteBuf frame) {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageFrameDecoder(MAX_SIZE), new MessageRequestDecoder());
+        try {
+            channel.writeInbound(frame);
+            fail("Corrupted frame should be rejected");
+        } catch (CorruptedFrameException e) {
+            // 期望的异常
+        }
+        assertNull(channel.readInbound());
+    }
+
+    private static ByteBuf header(int magic, byte version) {
+        ByteBuf frame = Unpooled.buffer(CommonConstant.HEADER_LENGTH);
+        frame.writeShort(magic);
+        frame.writeByte(version);
+        frame.writeByte(MessageTypeEnum.HEARTBEAT_REQUEST.getCode());
+        frame.writeByte(SERIALIZATION);
+        frame.writeByte(0);
+        frame.writeByte(0);
+        frame.writeLong(1);
+        frame.writeInt(0);
+        return frame;
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(random.nextBoolean() ? 4 : 26)));
+        }
+        return builder.toString();
+    }
+}
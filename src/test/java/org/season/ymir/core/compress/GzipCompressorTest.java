@@ -0,0 +1,83 @@
+package org.season.ymir.core.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.DecompressionException;
+import org.junit.Test;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.utils.CompressorUtils;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * gzip压缩测试
+ *
+ * @author KevinClair
+ **/
+public class GzipCompressorTest {
+
+    private static final int MAX_SIZE = 8 * 1024 * 1024;
+
+    private final Compressor compressor = new GzipCompressor();
+
+    @Test
+    public void roundTripNearMaxSize() throws Exception {
+        ByteBuf raw = payload(MAX_SIZE - 100);
+        ByteBuf compressed = compress(raw);
+        ByteBuf out = CompressorUtils.decompress(CompressorTypeEnum.GZIP.getCode(), compressed, MAX_SIZE);
+        try {
+            assertTrue(ByteBufUtil.equals(raw, out));
+        } finally {
+            raw.release();
+            compressed.release();
+            out.release();
+        }
+    }
+
+    @Test
+    public void roundTripExactlyMaxSize() throws Exception {
+        ByteBuf raw = payload(MAX_SIZE);
+        ByteBuf compressed = compress(raw);
+        ByteBuf out = CompressorUtils.decompress(CompressorTypeEnum.GZIP.getCode(), compressed, MAX_SIZE);
+        try {
+            assertTrue(ByteBufUtil.equals(raw, out));
+        } finally {
+            raw.release();
+            compressed.release();
+            out.release();
+        }
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void rejectPayloadOverMaxSize() throws Exception {
+        ByteBuf raw = payload(MAX_SIZE + 1);
+        ByteBuf compressed = compress(raw);
+        try {
+            CompressorUtils.decompress(CompressorTypeEnum.GZIP.getCode(), compressed, MAX_SIZE);
+        } finally {
+            raw.release();
+            compressed.release();
+        }
+    }
+
+    private ByteBuf compress(ByteBuf raw) throws Exception {
+        ByteBuf compressed = Unpooled.buffer();
+        compressor.compress(raw.duplicate(), compressed);
+        return compressed;
+    }
+
+    /**
+     * 部分随机的数据，压缩后仍有一定长度
+     */
+    private static ByteBuf payload(int length) {
+        byte[] bytes = new byte[length];
+        Random random = new Random(length);
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i % 3 == 0 ? random.nextInt(16) : 'a' + i % 26);
+        }
+        return Unpooled.wrappedBuffer(bytes);
+    }
+}
@@ -0,0 +1,72 @@
+package org.season.ymir.core.handler;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * 服务方法调用器测试
+ *
+ * @author KevinClair
+ **/
+public class MethodInvokerTest {
+
+    @Test
+    public void invokeOverloadedMethods() throws Throwable {
+        Map<String, MethodInvoker[]> invokers = MethodInvoker.resolve(EchoService.class);
+        EchoService service = new EchoService();
+        assertEquals(2, invokers.get("echo").length);
+        for (MethodInvoker invoker : invokers.get("echo")) {
+            if (invoker.matches(new Class<?>[]{String.class})) {
+                assertEquals("echo:ymir", invoker.invoke(service, new Object[]{"ymir"}));
+            } else {
+                assertArrayEquals(new Class<?>[]{String.class, int.class}, invoker.getParameterTypes());
+                assertEquals("echo:ymir:2", invoker.invoke(service, new Object[]{"ymir", 2}));
+            }
+        }
+        assertNull(invokers.get("nothing")[0].invoke(service, null));
+        assertEquals(3, invokers.get("increase")[0].invoke(null, new Object[]{2}));
+        assertNull(invokers.get("hashCode"));
+    }
+
+    @Test
+    public void throwExceptionOfMethod() throws Throwable {
+        MethodInvoker invoker = MethodInvoker.resolve(EchoService.class).get("fail")[0];
+        try {
+            invoker.invoke(new EchoService(), new Object[0]);
+            fail("Exception of method should be thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("fail", e.getMessage());
+        }
+    }
+
+    /**
+     * 非public的服务实现类
+     */
+    static class EchoService {
+
+        public String echo(String value) {
+            return "echo:" + value;
+        }
+
+        public String echo(String value, int times) {
+            return "echo:" + value + ":" + times;
+        }
+
+        public void nothing() {
+        }
+
+        public static int increase(int value) {
+            return value + 1;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.season.ymir.server.handler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.EncoderException;
+import org.junit.Test;
+import org.season.ymir.common.base.CompressorTypeEnum;
+import org.season.ymir.common.base.MessageTypeEnum;
+import org.season.ymir.common.base.SerializationTypeEnum;
+import org.season.ymir.common.base.ServiceStatusEnum;
+import org.season.ymir.common.exception.RpcException;
+import org.season.ymir.common.model.YmirNettyMessage;
+import org.season.ymir.common.model.YmirRequest;
+import org.season.ymir.common.model.YmirResponse;
+import org.season.ymir.core.handler.RequestHandler;
+import org.season.ymir.core.property.YmirConfigurationProperty;
+import org.season.ymir.server.bulkhead.BulkheadRegistry;
+
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 服务端处理器测试
+ *
+ * @author KevinClair
+ **/
+public class NettyServerHandlerTest {
+
+    @Test
+    public void respondErrorWhenHandleFails() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(new RequestHandler(null, 1024) {
+            @Override
+            public YmirResponse handleRequest(YmirNettyMessage message) throws Exception {
+                throw new IllegalStateException("handle failed");
+            }
+        }));
+        channel.writeInbound(request(MessageTypeEnum.REQUEST, 1));
+        YmirNettyMessage message = channel.readOutbound();
+        YmirResponse response = (YmirResponse) message.getBody();
+        assertEquals(1, message.getRequestId());
+        assertEquals(ServiceStatusEnum.ERROR, response.getStatusEnum());
+        assertTrue(response.getException() instanceof IllegalStateException);
+
+        // 单向请求不返回响应
+        channel.writeInbound(request(MessageTypeEnum.ONEWAY, 2));
+        assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void respondErrorWhenWriteFails() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                // 模拟返回值无法编码，异常响应正常写出
+                if (((YmirNettyMessage) msg).getStatus() == ServiceStatusEnum.SUCCESS.getFlag()) {
+                    promise.setFailure(new EncoderException("unserializable return value"));
+                    return;
+                }
+                super.write(ctx, msg, promise);
+            }
+        }, handler(new RequestHandler(null, 1024) {
+            @Override
+            public YmirResponse handleRequest(YmirNettyMessage message) throws Exception {
+                YmirResponse response = new YmirResponse(ServiceStatusEnum.SUCCESS);
+                response.setReturnValue(new Object());
+                return response;
+            }
+        }));
+        channel.writeInbound(request(MessageTypeEnum.REQUEST, 3));
+        YmirNettyMessage message = channel.readOutbound();
+        YmirResponse response = (YmirResponse) message.getBody();
+        assertEquals(3, message.getRequestId());
+        assertEquals(ServiceStatusEnum.ERROR, response.getStatusEnum());
+        assertTrue(response.getException() instanceof RpcException);
+        assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void respondErrorWhenDecompressFails() {
+        EmbeddedChannel channel = new EmbeddedChannel(handler(new RequestHandler(null, 1024)));
+        YmirNettyMessage request = request(MessageTypeEnum.REQUEST, 4);
+        ByteBuf payload = Unpooled.wrappedBuffer(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        request.setCompressor(CompressorTypeEnum.GZIP.getCode());
+        request.setPayload(payload);
+        channel.writeInbound(request);
+        YmirNettyMessage message = channel.readOutbound();
+        YmirResponse response = (YmirResponse) message.getBody();
+        assertEquals(4, message.getRequestId());
+        assertEquals(ServiceStatusEnum.ERROR, response.getStatusEnum());
+        // 返回解压异常，损坏的压缩数据只释放一次
+        assertTrue(response.getException() instanceof ZipException);
+        assertEquals(0, payload.refCnt());
+        channel.finishAndReleaseAll();
+    }
+
+    private static NettyServerHandler handler(RequestHandler requestHandler) {
+        YmirConfigurationProperty property = new YmirConfigurationProperty();
+        property.setDispatcher("direct");
+        return new NettyServerHandler(requestHandler, new BulkheadRegistry(), property);
+    }
+
+    private static YmirNettyMessage request(MessageTypeEnum type, long requestId) {
+        YmirRequest request = new YmirRequest();
+        request.setRequestId(requestId);
+        request.setServiceName("org.season.ymir.Service");
+        request.setMethod("echo");
+        return new YmirNettyMessage(type, SerializationTypeEnum.PROTOBUF.getCode(), requestId, request);
+    }
+}